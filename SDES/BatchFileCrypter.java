@@ -0,0 +1,378 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 批量文件加解密
+ * 使用AsynchronousFileChannel读写，每个文件是一个"读-加解密-写"的回调链，
+ * 同时处理的文件数受缓冲区数量限制，所有文件共享一个固定大小的线程池
+ */
+public class BatchFileCrypter {
+
+    // 每次读写的字节数
+    public static final int CHUNK_SIZE = 64 * 1024;
+    // 进度快照的采样间隔
+    private static final long PROGRESS_INTERVAL_MILLIS = 200;
+
+    private final int key;
+    private final SDESCipher.Mode mode;
+    private final int iv;
+    private final boolean decrypt;
+    private final int maxInFlight;
+    private BatchCallback callback;
+
+    /**
+     * 批量处理回调
+     */
+    public interface BatchCallback {
+        /**
+         * 单个文件处理结束
+         * @param file 输入文件
+         * @param bytes 已处理的字节数
+         * @param error 失败原因，成功时为null
+         */
+        void onFileComplete(Path file, long bytes, Throwable error);
+
+        /**
+         * 整体进度，由采样线程按固定间隔回调
+         * @param message 进度描述
+         * @param progress 0-100
+         */
+        void onProgress(String message, int progress);
+    }
+
+    /**
+     * 批量处理结果
+     */
+    public static class BatchResult {
+        public final int fileCount;
+        public final int failedCount;
+        public final long totalBytes;
+
+        BatchResult(int fileCount, int failedCount, long totalBytes) {
+            this.fileCount = fileCount;
+            this.failedCount = failedCount;
+            this.totalBytes = totalBytes;
+        }
+    }
+
+    /**
+     * @param key 10位密钥
+     * @param mode 工作模式
+     * @param iv 8位初始向量，每个文件都从该IV开始
+     * @param decrypt true为解密，false为加密
+     * @param maxInFlight 同时处理的文件数上限
+     */
+    public BatchFileCrypter(int key, SDESCipher.Mode mode, int iv, boolean decrypt, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("同时处理的文件数必须大于0");
+        }
+        this.key = key;
+        this.mode = mode;
+        this.iv = iv;
+        this.decrypt = decrypt;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public void setCallback(BatchCallback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * 处理目录下的所有普通文件，输出保持相同的目录结构
+     * 输出文件与输入文件是同一文件时不处理该文件，计为失败
+     * @param inputDir 输入目录
+     * @param outputDir 输出目录
+     * @return 处理结果
+     * @throws IOException 遍历目录失败
+     * @throws InterruptedException 等待过程中被中断
+     */
+    public BatchResult processDirectory(Path inputDir, Path outputDir) throws IOException, InterruptedException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(inputDir)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        List<Path> outputs = new ArrayList<>(files.size());
+        for (Path file : files) {
+            outputs.add(outputDir.resolve(inputDir.relativize(file).toString()));
+        }
+        return process(files, outputs);
+    }
+
+    /**
+     * 处理文件列表，输出文件放在输出目录下，文件名不变
+     * 开始处理前检查输出文件名，不同目录下的同名文件会互相覆盖，因此不允许重复
+     * @param files 输入文件
+     * @param outputDir 输出目录
+     * @return 处理结果
+     * @throws IllegalArgumentException 两个输入文件的文件名相同
+     * @throws InterruptedException 等待过程中被中断
+     */
+    public BatchResult processFiles(List<Path> files, Path outputDir) throws InterruptedException {
+        List<Path> outputs = new ArrayList<>(files.size());
+        Map<Path, Path> sources = new HashMap<>();
+        for (Path file : files) {
+            Path output = outputDir.resolve(file.getFileName().toString());
+            Path previous = sources.putIfAbsent(output, file);
+            if (previous != null) {
+                throw new IllegalArgumentException("输出文件名重复: " + file.getFileName()
+                        + " (" + previous + ", " + file + ")");
+            }
+            outputs.add(output);
+        }
+        return process(files, outputs);
+    }
+
+    private BatchResult process(List<Path> inputs, List<Path> outputs) throws InterruptedException {
+        int total = inputs.size();
+        if (total == 0) {
+            return new BatchResult(0, 0, 0);
+        }
+
+        // 缓冲区队列同时限制了同时处理的文件数
+        BlockingQueue<ByteBuffer> buffers = new ArrayBlockingQueue<>(maxInFlight);
+        for (int i = 0; i < maxInFlight; i++) {
+            buffers.add(ByteBuffer.allocate(CHUNK_SIZE));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(maxInFlight, Runtime.getRuntime().availableProcessors()));
+        CountDownLatch remaining = new CountDownLatch(total);
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong totalBytes = new AtomicLong();
+
+        // 读写回调只累加字节计数，整体进度由采样线程汇报
+        JobTelemetry telemetry = new JobTelemetry("字节", totalSize(inputs));
+        if (callback != null) {
+            BatchCallback target = callback;
+            telemetry.addListener(snapshot -> target.onProgress(snapshot.describe(), snapshot.progress()));
+        }
+        telemetry.start(PROGRESS_INTERVAL_MILLIS);
+
+        try {
+            for (int i = 0; i < total; i++) {
+                ByteBuffer buffer = buffers.take();
+                FileJob job = new FileJob(inputs.get(i), outputs.get(i), buffer, telemetry, (bytes, error) -> {
+                    buffers.offer(buffer);
+                    totalBytes.addAndGet(bytes);
+                    if (error != null) {
+                        failed.incrementAndGet();
+                    }
+                    remaining.countDown();
+                });
+                job.start(executor);
+            }
+            remaining.await();
+        } finally {
+            executor.shutdown();
+            telemetry.stop();
+        }
+
+        return new BatchResult(total, failed.get(), totalBytes.get());
+    }
+
+    /**
+     * 输入文件的总字节数，无法读取大小的文件按0计
+     */
+    private static long totalSize(List<Path> files) {
+        long size = 0;
+        for (Path file : files) {
+            try {
+                size += Files.size(file);
+            } catch (IOException e) {
+                // 打开文件时会再次报告该错误
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 单个文件处理结束时的内部通知
+     */
+    private interface JobListener {
+        void finished(long bytes, Throwable error);
+    }
+
+    /**
+     * 单个文件的读-加解密-写回调链
+     */
+    private class FileJob {
+        private final Path input;
+        private final Path output;
+        private final ByteBuffer buffer;
+        private final JobTelemetry telemetry;
+        private final JobListener listener;
+        private final SDESCipher cipher = new SDESCipher(mode, decrypt, key, iv);
+
+        private AsynchronousFileChannel in;
+        private AsynchronousFileChannel out;
+        private long position;
+
+        FileJob(Path input, Path output, ByteBuffer buffer, JobTelemetry telemetry, JobListener listener) {
+            this.input = input;
+            this.output = output;
+            this.buffer = buffer;
+            this.telemetry = telemetry;
+            this.listener = listener;
+        }
+
+        void start(ExecutorService executor) {
+            try {
+                Path parent = output.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                // 输出会先被截断，与输入是同一文件时输入在读取前就被清空
+                if (Files.exists(output) && Files.isSameFile(input, output)) {
+                    throw new IOException("输出文件与输入文件相同: " + output);
+                }
+                in = AsynchronousFileChannel.open(input, EnumSet.of(StandardOpenOption.READ), executor);
+                out = AsynchronousFileChannel.open(output, EnumSet.of(StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), executor);
+                readNext();
+            } catch (IOException | RuntimeException e) {
+                finish(e);
+            }
+        }
+
+        private void readNext() {
+            buffer.clear();
+            in.read(buffer, position, null, new CompletionHandler<Integer, Void>() {
+                @Override
+                public void completed(Integer count, Void attachment) {
+                    if (count < 0) {
+                        finish(null);
+                        return;
+                    }
+                    try {
+                        buffer.flip();
+                        cipher.update(buffer.array(), buffer.arrayOffset(), buffer.limit(),
+                                      buffer.array(), buffer.arrayOffset());
+                        writeChunk();
+                    } catch (RuntimeException e) {
+                        finish(e);
+                    }
+                }
+
+                @Override
+                public void failed(Throwable error, Void attachment) {
+                    finish(error);
+                }
+            });
+        }
+
+        private void writeChunk() {
+            out.write(buffer, position, null, new CompletionHandler<Integer, Void>() {
+                @Override
+                public void completed(Integer count, Void attachment) {
+                    position += count;
+                    telemetry.addCompleted(count);
+                    try {
+                        if (buffer.hasRemaining()) {
+                            writeChunk();
+                        } else {
+                            readNext();
+                        }
+                    } catch (RuntimeException e) {
+                        finish(e);
+                    }
+                }
+
+                @Override
+                public void failed(Throwable error, Void attachment) {
+                    finish(error);
+                }
+            });
+        }
+
+        private void finish(Throwable error) {
+            Throwable failure = error;
+            for (AsynchronousFileChannel channel : new AsynchronousFileChannel[]{in, out}) {
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        if (failure == null) {
+                            failure = e;
+                        }
+                    }
+                }
+            }
+            if (callback != null) {
+                callback.onFileComplete(input, position, failure);
+            }
+            listener.finished(position, failure);
+        }
+    }
+
+    /**
+     * 命令行入口
+     * 用法: java BatchFileCrypter encrypt|decrypt 输入目录 输出目录 10位二进制密钥 [模式] [8位二进制IV] [并发文件数]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4 || !("encrypt".equals(args[0]) || "decrypt".equals(args[0]))
+                || !Utils.isValidBinary(args[3], 10)) {
+            System.err.println("用法: java BatchFileCrypter encrypt|decrypt 输入目录 输出目录 10位二进制密钥 "
+                    + "[ECB|CBC|CFB8|OFB|CTR] [8位二进制IV] [并发文件数]");
+            System.exit(2);
+        }
+
+        SDESCipher.Mode mode;
+        int iv;
+        int maxInFlight;
+        try {
+            mode = args.length > 4 ? SDESCipher.Mode.valueOf(args[4].toUpperCase()) : SDESCipher.Mode.ECB;
+            if (args.length > 5 && !Utils.isValidBinary(args[5], 8)) {
+                throw new IllegalArgumentException("IV必须是8位二进制数");
+            }
+            iv = args.length > 5 ? Utils.binaryStringToInt(args[5]) : 0;
+            maxInFlight = args.length > 6 ? Integer.parseInt(args[6]) : 64;
+        } catch (IllegalArgumentException e) {
+            System.err.println("参数错误: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        BatchFileCrypter crypter = new BatchFileCrypter(Utils.binaryStringToInt(args[3]), mode, iv,
+                "decrypt".equals(args[0]), maxInFlight);
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        crypter.setCallback(new BatchCallback() {
+            @Override
+            public void onFileComplete(Path file, long bytes, Throwable error) {
+                if (error != null) {
+                    failures.add(file + ": " + error.getMessage());
+                }
+            }
+
+            @Override
+            public void onProgress(String message, int progress) {
+                System.err.println(message + " (" + progress + "%)");
+            }
+        });
+
+        BatchResult result = crypter.processDirectory(Paths.get(args[1]), Paths.get(args[2]));
+        failures.forEach(System.err::println);
+        System.out.println("files=" + result.fileCount + " failed=" + result.failedCount + " bytes=" + result.totalBytes);
+        System.exit(result.failedCount == 0 ? 0 : 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,304 @@
+/**
+ * 位切片S-DES实现
+ * 每个数据位和密钥位各占一个long，long的第j位属于第j路计算，
+ * 一遍布尔运算即可同时完成64个密钥（或64个数据块）的加密
+ */
+public class BitslicedSDES {
+
+    // 每遍同时计算的路数
+    public static final int LANES = 64;
+
+    // K1每一位对应的主密钥位下标 (0为第1位)
+    private static final int[] K1_INDEX = new int[8];
+
+    // K2每一位对应的主密钥位下标
+    private static final int[] K2_INDEX = new int[8];
+
+    // 低6位密钥在64路中的取值模式，第w项对应权重为2^w的密钥位
+    private static final long[] KEY_LANE_PATTERN = {
+        0xAAAAAAAAAAAAAAAAL,
+        0xCCCCCCCCCCCCCCCCL,
+        0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L,
+        0xFFFF0000FFFF0000L,
+        0xFFFFFFFF00000000L
+    };
+
+    // 每组64个连续密钥的子密钥位切片表示，第w项为从w*64开始的64个密钥，前8项为K1、后8项为K2
+    // 类加载时计算一次，之后所有扫描共用
+    private static final long[][] SUB_KEY_LANES = new long[SDESCodebook.KEY_COUNT / LANES][16];
+
+    // 每个线程复用的中间数组，热循环中不再分配
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    static {
+        // 子密钥的每一位都只是主密钥某一位的拷贝，逐位探测密钥生成器即可得到连线关系
+        for (int keyBit = 0; keyBit < 10; keyBit++) {
+            int subKeys = KeyGenerator.generateSubKeys(1 << (9 - keyBit));
+            for (int i = 0; i < 8; i++) {
+                if (((subKeys >>> (15 - i)) & 1) != 0) {
+                    K1_INDEX[i] = keyBit;
+                }
+                if (((subKeys >>> (7 - i)) & 1) != 0) {
+                    K2_INDEX[i] = keyBit;
+                }
+            }
+        }
+        for (int word = 0; word < SUB_KEY_LANES.length; word++) {
+            subKeyLanes(keyLanes(word * LANES), SUB_KEY_LANES[word]);
+        }
+    }
+
+    /**
+     * 一次位切片加解密用到的中间数组
+     */
+    private static final class Scratch {
+        final long[] block = new long[8];
+        final long[] subKeys = new long[16];
+        final long[] out = new long[8];
+        final long[] left = new long[4];
+        final long[] right = new long[4];
+        final long[] right1 = new long[4];
+        final long[] sBoxes = new long[4];
+        final long[] f = new long[4];
+        final long[] merged = new long[8];
+    }
+
+    private BitslicedSDES() {
+    }
+
+    /**
+     * 位切片加密
+     * @param block 8个数据位，第i项为第i+1位在64路中的取值
+     * @param key 10个密钥位，第i项为第i+1位在64路中的取值
+     * @param out 8个密文位的输出
+     */
+    public static void encrypt(long[] block, long[] key, long[] out) {
+        Scratch scratch = SCRATCH.get();
+        subKeyLanes(key, scratch.subKeys);
+        rounds(block, scratch.subKeys, 0, 8, out, scratch);
+    }
+
+    /**
+     * 位切片解密
+     * @param block 8个密文位
+     * @param key 10个密钥位
+     * @param out 8个明文位的输出
+     */
+    public static void decrypt(long[] block, long[] key, long[] out) {
+        Scratch scratch = SCRATCH.get();
+        subKeyLanes(key, scratch.subKeys);
+        rounds(block, scratch.subKeys, 8, 0, out, scratch);
+    }
+
+    /**
+     * 测试从keyBase开始的64个密钥能否将明文加密为密文
+     * @param plaintext 8位明文
+     * @param ciphertext 8位密文
+     * @param keyBase 起始密钥，必须是64的倍数
+     * @return 64位掩码，第j位为1表示密钥keyBase+j匹配
+     */
+    public static long matchKeys(int plaintext, int ciphertext, int keyBase) {
+        Scratch scratch = SCRATCH.get();
+        broadcast(plaintext, scratch.block);
+        rounds(scratch.block, SUB_KEY_LANES[keyBase / LANES], 0, 8, scratch.out, scratch);
+
+        long match = -1L;
+        for (int i = 0; i < 8; i++) {
+            long expected = ((ciphertext >>> (7 - i)) & 1) != 0 ? -1L : 0L;
+            match &= ~(scratch.out[i] ^ expected);
+        }
+        return match;
+    }
+
+    /**
+     * 以16遍位切片计算扫描全部1024个密钥
+     * @param plaintext 8位明文
+     * @param ciphertext 8位密文
+     * @return 1024位密钥位图，密钥k对应第k/64个long的第k%64位
+     */
+    public static long[] matchAllKeys(int plaintext, int ciphertext) {
+        long[] bitmap = new long[SDESCodebook.KEY_COUNT / LANES];
+        for (int word = 0; word < bitmap.length; word++) {
+            bitmap[word] = matchKeys(plaintext, ciphertext, word * LANES);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 生成从keyBase开始的64个连续密钥的位切片表示
+     * @param keyBase 起始密钥，必须是64的倍数
+     * @return 10个密钥位
+     */
+    public static long[] keyLanes(int keyBase) {
+        long[] key = new long[10];
+        for (int i = 0; i < 10; i++) {
+            int weight = 9 - i;
+            if (weight < KEY_LANE_PATTERN.length) {
+                key[i] = KEY_LANE_PATTERN[weight];
+            } else {
+                key[i] = ((keyBase >>> weight) & 1) != 0 ? -1L : 0L;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * 将同一个值广播到全部64路
+     * @param value 打包后的值
+     * @param bits 位数
+     * @return 每位一个long的位切片表示
+     */
+    public static long[] broadcast(int value, int bits) {
+        long[] lanes = new long[bits];
+        broadcast(value, lanes);
+        return lanes;
+    }
+
+    /**
+     * 将同一个值广播到全部64路，写入给定数组，位数为数组长度
+     */
+    private static void broadcast(int value, long[] lanes) {
+        int bits = lanes.length;
+        for (int i = 0; i < bits; i++) {
+            lanes[i] = ((value >>> (bits - 1 - i)) & 1) != 0 ? -1L : 0L;
+        }
+    }
+
+    /**
+     * 从10个密钥位取出K1和K2的位切片表示
+     * @param key 10个密钥位
+     * @param subKeys 输出，前8项为K1，后8项为K2
+     */
+    private static void subKeyLanes(long[] key, long[] subKeys) {
+        for (int i = 0; i < 8; i++) {
+            subKeys[i] = key[K1_INDEX[i]];
+            subKeys[i + 8] = key[K2_INDEX[i]];
+        }
+    }
+
+    /**
+     * 穷举校验：全部1024个密钥 × 256个数据块的位切片加解密和matchKeys均与标量SDES一致
+     * 用法: java BitslicedSDES，一致时退出码为0，否则输出第一处不一致并以1退出
+     */
+    public static void main(String[] args) {
+        long[] out = new long[8];
+        for (int keyBase = 0; keyBase < SDESCodebook.KEY_COUNT; keyBase += LANES) {
+            long[] key = keyLanes(keyBase);
+            for (int block = 0; block < SDESCodebook.BLOCK_COUNT; block++) {
+                encrypt(broadcast(block, 8), key, out);
+                long[] encrypted = out.clone();
+                decrypt(broadcast(block, 8), key, out);
+                for (int lane = 0; lane < LANES; lane++) {
+                    int k = keyBase + lane;
+                    int ciphertext = SDES.encrypt(block, k);
+                    if (lane(encrypted, lane) != ciphertext || lane(out, lane) != SDES.decrypt(block, k)
+                            || (matchKeys(block, ciphertext, keyBase) & (1L << lane)) == 0) {
+                        System.err.println("位切片实现与标量实现不一致: 密钥 " + Utils.intToBinaryString(k, 10)
+                                + ", 数据块 " + Utils.intToBinaryString(block, 8));
+                        System.exit(1);
+                    }
+                }
+            }
+        }
+        System.out.println("位切片实现与标量实现一致: " + SDESCodebook.KEY_COUNT + "个密钥 × "
+                + SDESCodebook.BLOCK_COUNT + "个数据块");
+    }
+
+    /**
+     * 取出第lane路的8位结果
+     */
+    private static int lane(long[] bits, int lane) {
+        int value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 1) | (int) ((bits[i] >>> lane) & 1);
+        }
+        return value;
+    }
+
+    /**
+     * 两轮Feistel结构
+     * @param subKeys 子密钥位切片，第一轮从first开始取8项，第二轮从second开始取8项
+     * @param scratch 中间数组，block和out不能与其中的数组相同
+     */
+    private static void rounds(long[] block, long[] subKeys, int first, int second, long[] out, Scratch scratch) {
+        // 初始置换并分割为左右各4位
+        long[] left = scratch.left;
+        long[] right = scratch.right;
+        for (int i = 0; i < 4; i++) {
+            left[i] = block[Permutation.IP[i] - 1];
+            right[i] = block[Permutation.IP[i + 4] - 1];
+        }
+
+        // 第一轮: 左右交换
+        long[] f = scratch.f;
+        fFunction(right, subKeys, first, scratch.sBoxes, f);
+        long[] right1 = scratch.right1;
+        for (int i = 0; i < 4; i++) {
+            right1[i] = left[i] ^ f[i];
+        }
+
+        // 第二轮: 不交换
+        fFunction(right1, subKeys, second, scratch.sBoxes, f);
+        long[] merged = scratch.merged;
+        for (int i = 0; i < 4; i++) {
+            merged[i] = right[i] ^ f[i];
+            merged[i + 4] = right1[i];
+        }
+
+        // 最终置换
+        for (int i = 0; i < 8; i++) {
+            out[i] = merged[Permutation.IP_INV[i] - 1];
+        }
+    }
+
+    /**
+     * 位切片F函数
+     * @param right 4位右半部分
+     * @param subKeys 子密钥位切片，从offset开始取8项
+     * @param sBoxes S盒输出的中间数组
+     * @param out 4位输出
+     */
+    private static void fFunction(long[] right, long[] subKeys, int offset, long[] sBoxes, long[] out) {
+        // 扩展置换并与子密钥异或，直接作为S盒输入
+        sBox0(right[Permutation.EP[0] - 1] ^ subKeys[offset],
+              right[Permutation.EP[1] - 1] ^ subKeys[offset + 1],
+              right[Permutation.EP[2] - 1] ^ subKeys[offset + 2],
+              right[Permutation.EP[3] - 1] ^ subKeys[offset + 3], sBoxes, 0);
+        sBox1(right[Permutation.EP[4] - 1] ^ subKeys[offset + 4],
+              right[Permutation.EP[5] - 1] ^ subKeys[offset + 5],
+              right[Permutation.EP[6] - 1] ^ subKeys[offset + 6],
+              right[Permutation.EP[7] - 1] ^ subKeys[offset + 7], sBoxes, 2);
+
+        // P4置换
+        for (int i = 0; i < 4; i++) {
+            out[i] = sBoxes[Permutation.P4[i] - 1];
+        }
+    }
+
+    /**
+     * S0盒的布尔电路 (a为第1位，行号为ad，列号为bc)
+     * 高位 = b ^ d ^ a(b ^ c ^ bcd)
+     * 低位 = ~(a ^ c ^ a(b ^ c ^ d ^ bd ^ bcd))
+     */
+    private static void sBox0(long a, long b, long c, long d, long[] out, int offset) {
+        long bd = b & d;
+        long bcd = bd & c;
+        out[offset] = b ^ d ^ (a & (b ^ c ^ bcd));
+        out[offset + 1] = ~(a ^ c ^ (a & (b ^ c ^ d ^ bd ^ bcd)));
+    }
+
+    /**
+     * S1盒的布尔电路 (a为第1位，行号为ad，列号为bc)
+     * 高位 = a ^ b ^ d ^ cd ^ a(c ^ d ^ bc ^ cd ^ bcd)
+     * 低位 = a ^ c ^ bd ^ cd ^ a(d ^ bd ^ cd)
+     */
+    private static void sBox1(long a, long b, long c, long d, long[] out, int offset) {
+        long bc = b & c;
+        long bd = b & d;
+        long cd = c & d;
+        long bcd = bc & d;
+        out[offset] = a ^ b ^ d ^ cd ^ (a & (c ^ d ^ bc ^ cd ^ bcd));
+        out[offset + 1] = a ^ c ^ bd ^ cd ^ (a & (d ^ bd ^ cd));
+    }
+}
\ No newline at end of file
@@ -1,28 +1,122 @@
 import javax.swing.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
 
 /**
  * S-DES暴力破解处理器 - 处理暴力破解的核心逻辑
  */
 public class BruteForceProcessor {
+    // 每个并行任务负责的密钥数，与位切片的路数相同
+    private static final int CHUNK_SIZE = BitslicedSDES.LANES;
+    private static final int CHUNK_COUNT = SDESCodebook.KEY_COUNT / CHUNK_SIZE;
+    // 进度快照的采样间隔
+    private static final long PROGRESS_INTERVAL_MILLIS = 100;
+
     private SwingWorker<Void, ProgressData> worker;
     private ProgressCallback progressCallback;
+    private Engine engine = Engine.DIRECT;
+    // 明密文对到密钥的索引，仅在选择INDEX引擎时使用；可由后台线程设置
+    private volatile PairKeyIndex pairKeyIndex;
+    private final List<JobTelemetry.Listener> telemetryListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 暴力破解使用的加密引擎
+     */
+    public enum Engine {
+        DIRECT("直接计算"),
+        CODEBOOK("预计算码本"),
+        BITSLICED("位切片"),
+        INDEX("明密文对索引");
+
+        private final String label;
+
+        Engine(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
 
     public interface ProgressCallback {
         void onProgress(String message, int progress);
         void onComplete(List<String> foundKeys, int pairCount);
     }
 
+    /**
+     * 设置明密文对到密钥的索引，选择INDEX引擎时读取索引中的位图并求交，不再遍历密钥
+     * @param index 索引，为null时INDEX引擎不可用
+     */
+    public void setPairKeyIndex(PairKeyIndex index) {
+        this.pairKeyIndex = index;
+    }
+
+    public PairKeyIndex getPairKeyIndex() {
+        return pairKeyIndex;
+    }
+
     public void setProgressCallback(ProgressCallback callback) {
         this.progressCallback = callback;
     }
 
+    /**
+     * 订阅之后每次暴力破解的遥测快照，在采样线程上回调
+     */
+    public void addTelemetryListener(JobTelemetry.Listener listener) {
+        telemetryListeners.add(listener);
+    }
+
+    public void removeTelemetryListener(JobTelemetry.Listener listener) {
+        telemetryListeners.remove(listener);
+    }
+
+    /**
+     * 设置暴力破解使用的加密引擎
+     * @param engine DIRECT直接计算，CODEBOOK通过SDESCodebook查表，BITSLICED每遍测试64个密钥，
+     *               INDEX查询setPairKeyIndex设置的索引
+     */
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
     public void startBruteForce(List<String[]> validPairs) {
+        // 预先将明密文对转换为打包整数，避免在循环中重复解析字符串
+        int pairCount = validPairs.size();
+        int[] plaintexts = new int[pairCount];
+        int[] ciphertexts = new int[pairCount];
+        for (int p = 0; p < pairCount; p++) {
+            String[] pair = validPairs.get(p);
+            if (Utils.isValidBinary(pair[0], 8) && Utils.isValidBinary(pair[1], 8)) {
+                plaintexts[p] = Utils.binaryStringToInt(pair[0]);
+                ciphertexts[p] = Utils.binaryStringToInt(pair[1]);
+            } else {
+                // 无效的明密文对不可能被任何密钥匹配
+                ciphertexts[p] = -1;
+            }
+        }
+        startBruteForce(plaintexts, ciphertexts);
+    }
+
+    /**
+     * 使用打包整数形式的明密文对启动暴力破解
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，与明文一一对应
+     */
+    public void startBruteForce(int[] plaintexts, int[] ciphertexts) {
         if (worker != null && !worker.isDone()) {
             worker.cancel(true);
         }
 
+        final PairKeyIndex index = pairKeyIndex;
+        // 选择了INDEX但索引尚未加载时退回位切片
+        final boolean indexMissing = engine == Engine.INDEX && index == null;
+        final Engine selectedEngine = indexMissing ? Engine.BITSLICED : engine;
+
         worker = new SwingWorker<Void, ProgressData>() {
             private List<String> foundKeys = new ArrayList<>();
 
@@ -31,53 +125,33 @@ public class BruteForceProcessor {
                 publish(new ProgressData("开始暴力破解...", 0));
                 foundKeys.clear();
 
-                int totalKeys = 1024; // 2^10 种可能的密钥
-                int pairCount = validPairs.size();
-
-                // 遍历所有可能的10位密钥
-                for (int i = 0; i < totalKeys; i++) {
-                    if (isCancelled()) {
-                        break;
-                    }
+                if (indexMissing) {
+                    publish(new ProgressData("明密文对索引尚未加载，改用位切片", 0));
+                }
+                if (selectedEngine == Engine.CODEBOOK) {
+                    publish(new ProgressData("正在构建码本...", 0));
+                    SDESCodebook.preload();
+                }
 
-                    // 生成当前测试的密钥二进制字符串
-                    String testKey = String.format("%10s", Integer.toBinaryString(i))
-                            .replace(' ', '0');
-
-                    boolean keyValid = true;
-
-                    // 用当前密钥测试所有明密文对
-                    for (String[] pair : validPairs) {
-                        String plaintext = pair[0];
-                        String expectedCiphertext = pair[1];
-
-                        try {
-                            // 使用当前密钥加密明文
-                            String actualCiphertext = SDES.encryptString(plaintext, testKey);
-
-                            // 如果加密结果与已知密文不匹配，则密钥无效
-                            if (!actualCiphertext.equals(expectedCiphertext)) {
-                                keyValid = false;
-                                break;
-                            }
-                        } catch (Exception e) {
-                            keyValid = false;
-                            break;
-                        }
-                    }
+                // 热循环只累加计数器，进度消息由采样线程按固定间隔生成
+                JobTelemetry telemetry = new JobTelemetry("密钥", SDESCodebook.KEY_COUNT);
+                telemetry.addListener(snapshot -> publish(new ProgressData(snapshot.describe(), snapshot.progress())));
+                telemetryListeners.forEach(telemetry::addListener);
+                telemetry.start(PROGRESS_INTERVAL_MILLIS);
+                KeyCandidateSet candidates;
+                try {
+                    candidates = selectedEngine == Engine.INDEX
+                            ? searchKeys(plaintexts, ciphertexts, index, telemetry)
+                            : searchKeys(plaintexts, ciphertexts, selectedEngine, this::isCancelled, telemetry);
+                } finally {
+                    telemetry.stop();
+                }
 
-                    // 如果密钥通过所有测试，则找到有效密钥
-                    if (keyValid) {
-                        foundKeys.add(testKey);
+                if (!isCancelled()) {
+                    for (int key : candidates.toArray()) {
+                        foundKeys.add(Utils.intToBinaryString(key, 10));
                     }
-
-                    int progress = (int) ((double) i / totalKeys * 100);
-                    publish(new ProgressData(
-                            String.format("测试密钥: %s (%d/%d)", testKey, i + 1, totalKeys),
-                            progress
-                    ));
                 }
-
                 return null;
             }
 
@@ -92,7 +166,7 @@ public class BruteForceProcessor {
             @Override
             protected void done() {
                 if (progressCallback != null) {
-                    progressCallback.onComplete(foundKeys, validPairs.size());
+                    progressCallback.onComplete(foundKeys, plaintexts.length);
                 }
             }
         };
@@ -100,6 +174,84 @@ public class BruteForceProcessor {
         worker.execute();
     }
 
+    /**
+     * 并行搜索满足全部明密文对的密钥
+     * 密钥空间按64个一组划分给公共ForkJoinPool，每组开始前检查取消标志。
+     * 组内逐对计算明密文对的匹配位图并求交，交集为空时跳过剩余的明密文对；
+     * 各组只写候选集合中自己的位图字，无需加锁
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，负数表示无效的明密文对
+     * @param engine 加密引擎，不能是INDEX
+     * @param cancelled 取消标志
+     * @param telemetry 每完成一组累加已测试的密钥数和明密文对数，可以为null
+     * @return 候选密钥集合
+     */
+    public static KeyCandidateSet searchKeys(int[] plaintexts, int[] ciphertexts, Engine engine,
+                                             BooleanSupplier cancelled, JobTelemetry telemetry) {
+        if (engine == Engine.INDEX) {
+            throw new IllegalArgumentException("INDEX引擎需要指定明密文对索引");
+        }
+        KeyCandidateSet result = KeyCandidateSet.none();
+        IntStream.range(0, CHUNK_COUNT).parallel().forEach(chunk -> {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            int keyBase = chunk * CHUNK_SIZE;
+            long matches = -1L;
+            int p = 0;
+            for (; p < plaintexts.length && matches != 0L; p++) {
+                matches &= matchWord(plaintexts[p], ciphertexts[p], keyBase, engine);
+            }
+            result.setWord(chunk, matches);
+            if (telemetry != null) {
+                telemetry.addCompleted(CHUNK_SIZE);
+                telemetry.addPairsTested((long) p * CHUNK_SIZE);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * 通过明密文对索引查询满足全部明密文对的密钥
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，负数表示无效的明密文对
+     * @param index 明密文对索引
+     * @param telemetry 查询后累加全部密钥和明密文对数，可以为null
+     * @return 候选密钥集合
+     */
+    public static KeyCandidateSet searchKeys(int[] plaintexts, int[] ciphertexts, PairKeyIndex index,
+                                             JobTelemetry telemetry) {
+        KeyCandidateSet result = index.query(plaintexts, ciphertexts);
+        if (telemetry != null) {
+            telemetry.addCompleted(SDESCodebook.KEY_COUNT);
+            telemetry.addPairsTested(plaintexts.length);
+        }
+        return result;
+    }
+
+    /**
+     * 计算一对明密文在一组64个密钥上的匹配位图
+     */
+    private static long matchWord(int plaintext, int ciphertext, int keyBase, Engine engine) {
+        if (ciphertext < 0) {
+            return 0L;
+        }
+        if (engine == Engine.BITSLICED) {
+            return BitslicedSDES.matchKeys(plaintext, ciphertext, keyBase);
+        }
+
+        long matches = 0L;
+        for (int offset = 0; offset < CHUNK_SIZE; offset++) {
+            int key = keyBase + offset;
+            int actual = engine == Engine.CODEBOOK ? SDESCodebook.encrypt(plaintext, key) : SDES.encrypt(plaintext, key);
+            if (actual == ciphertext) {
+                matches |= 1L << offset;
+            }
+        }
+        return matches;
+    }
+
     public void stopBruteForce() {
         if (worker != null && !worker.isDone()) {
             worker.cancel(true);
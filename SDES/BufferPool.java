@@ -0,0 +1,49 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 固定大小字节缓冲区池
+ * 供加解密流和通道包装类复用中转缓冲区，避免每次打开流都重新分配
+ */
+public class BufferPool {
+
+    // 缓冲区大小
+    public static final int BUFFER_SIZE = 8192;
+
+    // 池中最多保留的缓冲区数量
+    private static final int MAX_POOLED = 64;
+
+    private static final ConcurrentLinkedQueue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED_COUNT = new AtomicInteger();
+
+    private BufferPool() {
+    }
+
+    /**
+     * 取出一个缓冲区，池为空时新建
+     * @return 长度为BUFFER_SIZE的数组，内容未定义
+     */
+    public static byte[] acquire() {
+        byte[] buffer = POOL.poll();
+        if (buffer == null) {
+            return new byte[BUFFER_SIZE];
+        }
+        POOLED_COUNT.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区，池已满或大小不符时直接丢弃
+     * @param buffer 之前取出的缓冲区
+     */
+    public static void release(byte[] buffer) {
+        if (buffer == null || buffer.length != BUFFER_SIZE) {
+            return;
+        }
+        if (POOLED_COUNT.incrementAndGet() <= MAX_POOLED) {
+            POOL.offer(buffer);
+        } else {
+            POOLED_COUNT.decrementAndGet();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,354 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * 唯密文攻击
+ * 针对ECB方式加密的ASCII或UTF-8文本，用全部1024个密钥试解密并按明文的语言特征打分。
+ * ECB下每个密文字节独立解密，只需统计一次密文的单字节和双字节直方图，
+ * 每个密钥的得分即可由直方图和码本算出，与密文长度无关。
+ * 得分取英文模型和UTF-8多字节文本模型中较高的一个，再加上UTF-8字节结构的双字节约束
+ */
+public class CiphertextOnlyCracker {
+
+    // 首次采样的密文字节数
+    private static final int INITIAL_SAMPLE = 1024;
+
+    // 每轮采样长度的增长倍数
+    private static final int SAMPLE_GROWTH = 4;
+
+    // 最优密钥领先第二名的对数似然差（自然对数）超过该值时提前结束
+    private static final double DECISIVE_MARGIN = 64.0;
+
+    // 英文字母频率（百分比），依次为a-z
+    private static final double[] LETTER_FREQUENCY = {
+            8.2, 1.5, 2.8, 4.3, 12.7, 2.2, 2.0, 6.1, 7.0, 0.15, 0.77, 4.0, 2.4,
+            6.7, 7.5, 1.9, 0.095, 6.0, 6.3, 9.1, 2.8, 0.98, 2.4, 0.15, 2.0, 0.074
+    };
+
+    // 英文文本中单字节明文的对数概率，下标为明文字节
+    private static final double[] ENGLISH_WEIGHT = buildEnglishWeights();
+
+    // 以中文等多字节字符为主的UTF-8文本中单字节明文的对数概率
+    private static final double[] MULTIBYTE_WEIGHT = buildMultibyteWeights();
+
+    // 相邻两个明文字节的UTF-8结构惩罚，下标为 (前一字节 << 8) | 后一字节
+    private static final double[] BIGRAM_WEIGHT = buildBigramWeights();
+
+    private CiphertextOnlyCracker() {
+    }
+
+    /**
+     * 候选密钥及其得分
+     */
+    public static class Candidate {
+        public final int key;
+        // 平均每字节的对数似然，越大越像文本
+        public final double score;
+        // 解密结果中可打印ASCII字符和完整UTF-8多字节序列所占字节的比例
+        public final double printableRatio;
+
+        Candidate(int key, double score, double printableRatio) {
+            this.key = key;
+            this.score = score;
+            this.printableRatio = printableRatio;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s (得分: %.3f, 可打印: %.1f%%)",
+                    Utils.intToBinaryString(key, 10), score, printableRatio * 100);
+        }
+    }
+
+    /**
+     * 对整段密文进行唯密文攻击
+     * @param ciphertext ECB方式加密的文本
+     * @param topK 返回的候选密钥数
+     * @return 按得分从高到低排列的候选密钥
+     */
+    public static List<Candidate> crack(byte[] ciphertext, int topK) {
+        return crack(ciphertext, 0, ciphertext.length, topK);
+    }
+
+    /**
+     * 对密文的一段进行唯密文攻击
+     * 先只统计开头的一小段密文，最优密钥没有明显领先时按倍数扩大采样，直到用完全部密文
+     * @param ciphertext 密文数组
+     * @param off 起始偏移
+     * @param len 字节数
+     * @param topK 返回的候选密钥数
+     * @return 按得分从高到低排列的候选密钥
+     */
+    public static List<Candidate> crack(byte[] ciphertext, int off, int len, int topK) {
+        if (off < 0 || len < 0 || off + len > ciphertext.length) {
+            throw new IllegalArgumentException("密文范围越界");
+        }
+        if (len == 0) {
+            throw new IllegalArgumentException("密文不能为空");
+        }
+        if (topK <= 0) {
+            throw new IllegalArgumentException("候选密钥数必须大于0");
+        }
+        SDESCodebook.preload();
+
+        Histogram histogram = new Histogram();
+        double[] scores = new double[SDESCodebook.KEY_COUNT];
+        int sampled = 0;
+        int target = Math.min(len, INITIAL_SAMPLE);
+        while (true) {
+            histogram.add(ciphertext, off + sampled, target - sampled);
+            sampled = target;
+            IntStream.range(0, SDESCodebook.KEY_COUNT).parallel()
+                    .forEach(key -> scores[key] = histogram.logLikelihood(key));
+            if (sampled == len || margin(scores) >= DECISIVE_MARGIN) {
+                break;
+            }
+            target = (int) Math.min(len, (long) sampled * SAMPLE_GROWTH);
+        }
+
+        // 大小为topK的小顶堆，堆顶是当前入选的最低分
+        Comparator<Integer> byScore = Comparator.comparingDouble(key -> scores[key]);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(topK + 1, byScore);
+        for (int key = 0; key < SDESCodebook.KEY_COUNT; key++) {
+            if (heap.size() < topK) {
+                heap.add(key);
+            } else if (scores[key] > scores[heap.peek()]) {
+                heap.poll();
+                heap.add(key);
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int key = heap.poll();
+            result.add(new Candidate(key, scores[key] / sampled, printableCount(ciphertext, off, sampled, key) / (double) sampled));
+        }
+        result.sort(Comparator.comparingDouble((Candidate c) -> c.score).reversed());
+        return result;
+    }
+
+    /**
+     * 最高分与第二高分之差
+     */
+    private static double margin(double[] scores) {
+        double first = Double.NEGATIVE_INFINITY;
+        double second = Double.NEGATIVE_INFINITY;
+        for (double score : scores) {
+            if (score > first) {
+                second = first;
+                first = score;
+            } else if (score > second) {
+                second = score;
+            }
+        }
+        return first - second;
+    }
+
+    /**
+     * 密文的单字节和双字节直方图，可以分段追加
+     */
+    private static class Histogram {
+        private final int[] unigrams = new int[256];
+        private final int[] bigrams = new int[256 * 256];
+        // 出现过的双字节下标，打分时只遍历这些项
+        private int[] bigramIndices = new int[256];
+        private int bigramCount;
+        private int previous = -1;
+
+        void add(byte[] data, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                int c = data[i] & 0xFF;
+                unigrams[c]++;
+                if (previous >= 0) {
+                    int index = (previous << 8) | c;
+                    if (bigrams[index]++ == 0) {
+                        if (bigramCount == bigramIndices.length) {
+                            bigramIndices = Arrays.copyOf(bigramIndices, bigramCount * 2);
+                        }
+                        bigramIndices[bigramCount++] = index;
+                    }
+                }
+                previous = c;
+            }
+        }
+
+        /**
+         * 用给定密钥解密后明文的对数似然
+         */
+        double logLikelihood(int key) {
+            double english = 0;
+            double multibyte = 0;
+            for (int c = 0; c < 256; c++) {
+                if (unigrams[c] != 0) {
+                    int plaintext = SDESCodebook.decrypt(c, key);
+                    english += unigrams[c] * ENGLISH_WEIGHT[plaintext];
+                    multibyte += unigrams[c] * MULTIBYTE_WEIGHT[plaintext];
+                }
+            }
+            double score = Math.max(english, multibyte);
+            for (int i = 0; i < bigramCount; i++) {
+                int index = bigramIndices[i];
+                int first = SDESCodebook.decrypt(index >>> 8, key);
+                int second = SDESCodebook.decrypt(index & 0xFF, key);
+                score += bigrams[index] * BIGRAM_WEIGHT[(first << 8) | second];
+            }
+            return score;
+        }
+    }
+
+    /**
+     * 用给定密钥解密后可打印的字节数
+     * 可打印ASCII字符计1字节；0x80以上的字节只有组成完整的UTF-8多字节序列时才计入，
+     * 序列结构与双字节模型的约束相同
+     */
+    private static int printableCount(byte[] ciphertext, int off, int len, int key) {
+        int count = 0;
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            int b = SDESCodebook.decrypt(ciphertext[i] & 0xFF, key);
+            if (b < 0x80) {
+                if ((b >= 0x20 && b < 0x7F) || b == '\n' || b == '\r' || b == '\t') {
+                    count++;
+                }
+                i++;
+                continue;
+            }
+            int length = sequenceLength(b);
+            int matched = 1;
+            while (length > 0 && matched < length && i + matched < end
+                    && isContinuation(SDESCodebook.decrypt(ciphertext[i + matched] & 0xFF, key))) {
+                matched++;
+            }
+            if (length > 0 && matched == length) {
+                count += length;
+                i += length;
+            } else {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * UTF-8前导字节对应的序列长度，不是前导字节时为0
+     */
+    private static int sequenceLength(int lead) {
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            return 2;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            return 3;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            return 4;
+        }
+        return 0;
+    }
+
+    private static boolean isContinuation(int b) {
+        return b >= 0x80 && b <= 0xBF;
+    }
+
+    /**
+     * 英文文本的单字节模型：空格和小写字母占主要部分，
+     * 保留少量概率给大写字母、数字、标点和UTF-8多字节字符，控制字符几乎不可能出现
+     */
+    private static double[] buildEnglishWeights() {
+        double[] p = new double[256];
+        Arrays.fill(p, 1e-6);
+        double letterTotal = 0;
+        for (double f : LETTER_FREQUENCY) {
+            letterTotal += f;
+        }
+        for (int i = 0; i < 26; i++) {
+            p['a' + i] = 0.68 * LETTER_FREQUENCY[i] / letterTotal;
+            p['A' + i] = 0.04 * LETTER_FREQUENCY[i] / letterTotal;
+        }
+        p[' '] = 0.15;
+        p['\n'] = 0.01;
+        p['\r'] = 0.002;
+        p['\t'] = 0.001;
+        for (int d = '0'; d <= '9'; d++) {
+            p[d] = 0.001;
+        }
+        for (char c : ".,'\"-!?;:()".toCharArray()) {
+            p[c] = 0.003;
+        }
+        for (int b = 0x21; b < 0x7F; b++) {
+            p[b] = Math.max(p[b], 0.0002);
+        }
+        for (int b = 0x80; b < 0x100; b++) {
+            p[b] = 0.0004;
+        }
+        return logNormalize(p);
+    }
+
+    /**
+     * 多字节UTF-8文本的单字节模型：大部分是后续字节和三字节字符（中日韩文字）的前导字节，
+     * 夹杂ASCII字母、数字、标点和换行
+     */
+    private static double[] buildMultibyteWeights() {
+        double[] p = new double[256];
+        Arrays.fill(p, 1e-6);
+        for (int b = 0x20; b < 0x7F; b++) {
+            p[b] = 0.001;
+        }
+        for (int i = 0; i < 26; i++) {
+            p['a' + i] = 0.003;
+        }
+        p[' '] = 0.02;
+        p['\n'] = 0.02;
+        p['\r'] = 0.002;
+        for (int b = 0x80; b <= 0xBF; b++) {
+            p[b] = 0.55 / 64;
+        }
+        for (int b = 0xC2; b <= 0xDF; b++) {
+            p[b] = 0.005 / 30;
+        }
+        for (int b = 0xE0; b <= 0xEF; b++) {
+            p[b] = 0.25 / 16;
+        }
+        for (int b = 0xF0; b <= 0xF4; b++) {
+            p[b] = 0.002 / 5;
+        }
+        return logNormalize(p);
+    }
+
+    /**
+     * 归一化为概率后取自然对数
+     */
+    private static double[] logNormalize(double[] p) {
+        double total = 0;
+        for (double v : p) {
+            total += v;
+        }
+        double[] weights = new double[256];
+        for (int b = 0; b < 256; b++) {
+            weights[b] = Math.log(p[b] / total);
+        }
+        return weights;
+    }
+
+    /**
+     * UTF-8结构约束：前导字节后必须是后续字节，后续字节前必须是前导字节或后续字节
+     */
+    private static double[] buildBigramWeights() {
+        double[] weights = new double[256 * 256];
+        for (int first = 0; first < 256; first++) {
+            boolean lead = first >= 0xC2 && first <= 0xF4;
+            boolean continuation = first >= 0x80 && first <= 0xBF;
+            for (int second = 0; second < 256; second++) {
+                boolean nextContinuation = second >= 0x80 && second <= 0xBF;
+                boolean valid = lead ? nextContinuation : (continuation || !nextContinuation);
+                if (!valid) {
+                    weights[(first << 8) | second] = -4.0;
+                }
+            }
+        }
+        return weights;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+/**
+ * 双重S-DES
+ * 用两个独立的10位密钥连续加密两次: C = E_k2(E_k1(P))，组合密钥为20位，打包为 (k1 << 10) | k2
+ */
+public class DoubleSDES {
+
+    // 组合密钥位数
+    public static final int KEY_BITS = 20;
+
+    // 组合密钥数量 (2^20)
+    public static final int KEY_COUNT = 1 << KEY_BITS;
+
+    private DoubleSDES() {
+    }
+
+    /**
+     * 打包两个10位密钥
+     */
+    public static int packKey(int firstKey, int secondKey) {
+        return ((firstKey & 0x3FF) << 10) | (secondKey & 0x3FF);
+    }
+
+    /**
+     * 组合密钥中第一次加密使用的密钥
+     */
+    public static int firstKey(int key) {
+        return (key >>> 10) & 0x3FF;
+    }
+
+    /**
+     * 组合密钥中第二次加密使用的密钥
+     */
+    public static int secondKey(int key) {
+        return key & 0x3FF;
+    }
+
+    /**
+     * 加密单个8位数据块
+     * @param plaintext 8位明文
+     * @param key 20位组合密钥
+     * @return 8位密文
+     */
+    public static int encrypt(int plaintext, int key) {
+        return SDESCodebook.encrypt(SDESCodebook.encrypt(plaintext, firstKey(key)), secondKey(key));
+    }
+
+    /**
+     * 解密单个8位数据块
+     * @param ciphertext 8位密文
+     * @param key 20位组合密钥
+     * @return 8位明文
+     */
+    public static int decrypt(int ciphertext, int key) {
+        return SDESCodebook.decrypt(SDESCodebook.decrypt(ciphertext, secondKey(key)), firstKey(key));
+    }
+
+    /**
+     * 批量加密字节数组 (ECB模式)
+     * @param out 密文数组，可以与明文数组相同
+     * @param key 20位组合密钥
+     */
+    public static void encrypt(byte[] in, int inOff, int len, byte[] out, int outOff, int key) {
+        SDES.encrypt(in, inOff, len, out, outOff, firstKey(key));
+        SDES.encrypt(out, outOff, len, out, outOff, secondKey(key));
+    }
+
+    /**
+     * 批量解密字节数组 (ECB模式)
+     * @param out 明文数组，可以与密文数组相同
+     * @param key 20位组合密钥
+     */
+    public static void decrypt(byte[] in, int inOff, int len, byte[] out, int outOff, int key) {
+        SDES.decrypt(in, inOff, len, out, outOff, secondKey(key));
+        SDES.decrypt(out, outOff, len, out, outOff, firstKey(key));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 基于内存映射的文件加解密
+ * 按窗口把输入文件和输出文件映射到内存，密文直接写入输出文件的映射区域，
+ * 不经过堆内存和字符串转换，可以处理数GB的文件
+ */
+public class FileCrypter {
+
+    // 每个映射窗口的字节数
+    public static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    // 进度快照的采样间隔
+    private static final long PROGRESS_INTERVAL_MILLIS = 200;
+
+    private FileCrypter() {
+    }
+
+    /**
+     * 加密或解密文件
+     * @param input 输入文件
+     * @param output 输出文件，已存在时会被覆盖
+     * @param key 10位密钥
+     * @param mode 工作模式
+     * @param iv 8位初始向量，ECB模式下忽略
+     * @param decrypt true为解密，false为加密
+     * @param listener 遥测快照订阅者，按固定间隔在采样线程上回调，可以为null
+     * @throws IOException 读写文件失败
+     */
+    public static void process(Path input, Path output, int key, SDESCipher.Mode mode, int iv,
+                               boolean decrypt, JobTelemetry.Listener listener) throws IOException {
+        JobTelemetry telemetry = new JobTelemetry("字节", Files.size(input));
+        if (listener != null) {
+            telemetry.addListener(listener);
+        }
+        telemetry.start(PROGRESS_INTERVAL_MILLIS);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             RandomAccessFile outFile = new RandomAccessFile(output.toFile(), "rw")) {
+            long size = in.size();
+            outFile.setLength(size);
+            FileChannel out = outFile.getChannel();
+
+            // 只有需要链接状态的模式才按顺序使用SDESCipher，ECB和CTR按窗口并行处理
+            SDESCipher cipher = (mode == SDESCipher.Mode.ECB || mode == SDESCipher.Mode.CTR)
+                    ? null : new SDESCipher(mode, decrypt, key, iv);
+
+            for (long offset = 0; offset < size; offset += WINDOW_SIZE) {
+                long length = Math.min(WINDOW_SIZE, size - offset);
+                MappedByteBuffer source = in.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, offset, length);
+
+                if (cipher != null) {
+                    cipher.update(source, target);
+                } else if (mode == SDESCipher.Mode.CTR) {
+                    ParallelSDES.cryptCTR(source, target, key, iv, offset);
+                } else if (decrypt) {
+                    ParallelSDES.decryptECB(source, target, key);
+                } else {
+                    ParallelSDES.encryptECB(source, target, key);
+                }
+                target.force();
+                telemetry.addCompleted(length);
+            }
+        } finally {
+            telemetry.stop();
+        }
+    }
+
+    /**
+     * 命令行入口
+     * 用法: java FileCrypter encrypt|decrypt 输入文件 输出文件 10位二进制密钥 [模式] [8位二进制IV]
+     */
+    public static void main(String[] args) {
+        if (args.length < 4 || !("encrypt".equals(args[0]) || "decrypt".equals(args[0]))) {
+            System.err.println("用法: java FileCrypter encrypt|decrypt 输入文件 输出文件 10位二进制密钥 [ECB|CBC|CFB8|OFB|CTR] [8位二进制IV]");
+            System.exit(2);
+        }
+        if (!Utils.isValidBinary(args[3], 10)) {
+            System.err.println("密钥必须是10位二进制数");
+            System.exit(2);
+        }
+
+        SDESCipher.Mode mode = SDESCipher.Mode.ECB;
+        if (args.length > 4) {
+            try {
+                mode = SDESCipher.Mode.valueOf(args[4].toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("无效的模式: " + args[4]);
+                System.exit(2);
+            }
+        }
+
+        int iv = 0;
+        if (args.length > 5) {
+            if (!Utils.isValidBinary(args[5], 8)) {
+                System.err.println("IV必须是8位二进制数");
+                System.exit(2);
+            }
+            iv = Utils.binaryStringToInt(args[5]);
+        }
+
+        try {
+            process(Paths.get(args[1]), Paths.get(args[2]), Utils.binaryStringToInt(args[3]), mode, iv,
+                    "decrypt".equals(args[0]),
+                    snapshot -> System.err.println(snapshot.describe() + " (" + snapshot.progress() + "%)"));
+        } catch (IOException e) {
+            System.err.println("文件处理失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
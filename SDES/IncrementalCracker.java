@@ -0,0 +1,140 @@
+import java.util.Arrays;
+
+/**
+ * 增量维护的候选密钥集合
+ * 与明密文对表格逐行对应；新增一对有效明密文时只计算该对的密钥位图并求交，
+ * 删除或修改时用已缓存的各对位图重新求交，不再从密钥0开始扫描
+ */
+public class IncrementalCracker {
+
+    // 表示该行没有有效的明密文对
+    private static final int NO_PAIR = -1;
+
+    // 每个不同明密文对的密钥位图缓存，下标为 (明文 << 8) | 密文
+    private final KeyCandidateSet[] pairCache = new KeyCandidateSet[256 * 256];
+
+    // 每行的明密文对，NO_PAIR表示无效或未输入
+    private int[] rows = new int[16];
+    private int rowCount;
+
+    // 当前全部有效明密文对的交集
+    private KeyCandidateSet candidates = KeyCandidateSet.all();
+    private int validPairCount;
+
+    /**
+     * 在指定位置插入一个空行
+     * @param row 行号
+     */
+    public void insertRow(int row) {
+        if (rowCount == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        System.arraycopy(rows, row, rows, row + 1, rowCount - row);
+        rows[row] = NO_PAIR;
+        rowCount++;
+    }
+
+    /**
+     * 删除指定行，之后的行号依次前移
+     * @param row 行号
+     */
+    public void removeRow(int row) {
+        int removed = rows[row];
+        System.arraycopy(rows, row + 1, rows, row, rowCount - row - 1);
+        rowCount--;
+        if (removed != NO_PAIR) {
+            recompute();
+        }
+    }
+
+    /**
+     * 设置某行为有效的明密文对
+     * @param row 行号
+     * @param plaintext 8位明文
+     * @param ciphertext 8位密文
+     */
+    public void setPair(int row, int plaintext, int ciphertext) {
+        int pair = ((plaintext & 0xFF) << 8) | (ciphertext & 0xFF);
+        int previous = rows[row];
+        if (previous == pair) {
+            return;
+        }
+        rows[row] = pair;
+        if (previous == NO_PAIR) {
+            // 只新增了一对，直接与当前交集求交
+            candidates.retainAll(pairCandidates(pair));
+            validPairCount++;
+        } else {
+            recompute();
+        }
+    }
+
+    /**
+     * 将某行标记为无效或未输入
+     * @param row 行号
+     */
+    public void clearPair(int row) {
+        if (rows[row] != NO_PAIR) {
+            rows[row] = NO_PAIR;
+            recompute();
+        }
+    }
+
+    /**
+     * 清空所有行
+     */
+    public void clear() {
+        rowCount = 0;
+        recompute();
+    }
+
+    /**
+     * 当前候选密钥集合的副本，没有有效明密文对时包含全部密钥
+     */
+    public KeyCandidateSet getCandidates() {
+        return candidates.copy();
+    }
+
+    /**
+     * 当前候选密钥数量
+     */
+    public int getCandidateCount() {
+        return candidates.size();
+    }
+
+    /**
+     * 当前有效明密文对数量
+     */
+    public int getValidPairCount() {
+        return validPairCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 用缓存的各对位图重新求交
+     */
+    private void recompute() {
+        KeyCandidateSet result = KeyCandidateSet.all();
+        int count = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (rows[i] != NO_PAIR) {
+                result.retainAll(pairCandidates(rows[i]));
+                count++;
+            }
+        }
+        candidates = result;
+        validPairCount = count;
+    }
+
+    private KeyCandidateSet pairCandidates(int pair) {
+        KeyCandidateSet cached = pairCache[pair];
+        if (cached == null) {
+            cached = KeyCandidateSet.forPair(pair >>> 8, pair & 0xFF);
+            pairCache[pair] = cached;
+        }
+        return cached;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 长时间任务的进度与遥测
+ * 热循环只累加无锁计数器，由采样线程按固定间隔生成快照并分发给订阅者，
+ * 进度汇报的格式化和界面更新不会拖慢任务本身
+ */
+public class JobTelemetry {
+
+    // 所有任务共用的采样线程
+    private static final ScheduledExecutorService SAMPLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "job-telemetry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String unit;
+    private final long total;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder pairsTested = new LongAdder();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // 分发快照时持有，保证采样线程的快照与最终快照不会交错，最终快照之后不再分发
+    private final Object emitLock = new Object();
+
+    private volatile long startNanos;
+    private ScheduledFuture<?> sampling;
+    private boolean stopped;
+
+    /**
+     * 快照订阅者
+     */
+    public interface Listener {
+        void onSnapshot(Snapshot snapshot);
+    }
+
+    /**
+     * 某一时刻的任务状态
+     */
+    public static class Snapshot {
+        public final String unit;
+        public final long completed;
+        public final long total;
+        public final long pairsTested;
+        public final long elapsedMillis;
+        public final double ratePerSecond;
+        public final long etaMillis;
+        public final boolean finished;
+
+        Snapshot(String unit, long completed, long total, long pairsTested, long elapsedMillis, boolean finished) {
+            this.unit = unit;
+            this.completed = completed;
+            this.total = total;
+            this.pairsTested = pairsTested;
+            this.elapsedMillis = elapsedMillis;
+            this.ratePerSecond = elapsedMillis > 0 ? completed * 1000.0 / elapsedMillis : 0;
+            this.etaMillis = completed > 0 && total > completed ? (total - completed) * elapsedMillis / completed : 0;
+            this.finished = finished;
+        }
+
+        /**
+         * 0-100的进度
+         */
+        public int progress() {
+            return total > 0 ? (int) Math.min(100, completed * 100 / total) : 0;
+        }
+
+        /**
+         * 适合状态栏显示的描述
+         */
+        public String describe() {
+            return String.format(Locale.ROOT, "已处理%s: %d/%d, %.0f/秒, 已用 %.1f 秒, 预计剩余 %.1f 秒",
+                    unit, completed, total, ratePerSecond, elapsedMillis / 1000.0, etaMillis / 1000.0);
+        }
+
+        /**
+         * 机器可读的JSON描述
+         */
+        public String toJson() {
+            return String.format(Locale.ROOT, "{\"unit\":\"%s\",\"completed\":%d,\"total\":%d,\"pairsTested\":%d,"
+                            + "\"elapsedMillis\":%d,\"ratePerSecond\":%.1f,\"etaMillis\":%d,\"finished\":%b}",
+                    unit, completed, total, pairsTested, elapsedMillis, ratePerSecond, etaMillis, finished);
+        }
+    }
+
+    /**
+     * @param unit 工作量单位，如"密钥"、"字节"
+     * @param total 总工作量
+     */
+    public JobTelemetry(String unit, long total) {
+        this.unit = unit;
+        this.total = total;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 开始计时并按固定间隔采样
+     * @param intervalMillis 采样间隔（毫秒）
+     */
+    public synchronized void start(long intervalMillis) {
+        synchronized (emitLock) {
+            stopped = false;
+        }
+        startNanos = System.nanoTime();
+        sampling = SAMPLER.scheduleAtFixedRate(() -> emit(false), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止采样并发出最终快照
+     * 正在分发的采样快照先分发完，之后的采样不再分发；订阅者在本对象的锁之外被调用
+     */
+    public void stop() {
+        ScheduledFuture<?> current;
+        synchronized (this) {
+            current = sampling;
+            sampling = null;
+        }
+        if (current != null) {
+            current.cancel(false);
+            emit(true);
+        }
+    }
+
+    /**
+     * 累加已完成的工作量，可在热循环中调用
+     */
+    public void addCompleted(long amount) {
+        completed.add(amount);
+    }
+
+    /**
+     * 累加已测试的(密钥, 明密文对)组合数，可在热循环中调用
+     */
+    public void addPairsTested(long amount) {
+        pairsTested.add(amount);
+    }
+
+    /**
+     * 立即生成一份快照
+     */
+    public Snapshot snapshot() {
+        return snapshot(false);
+    }
+
+    private Snapshot snapshot(boolean finished) {
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        return new Snapshot(unit, completed.sum(), total, pairsTested.sum(), elapsedMillis, finished);
+    }
+
+    private void emit(boolean finished) {
+        synchronized (emitLock) {
+            if (stopped) {
+                return;
+            }
+            stopped = finished;
+            Snapshot snapshot = snapshot(finished);
+            for (Listener listener : listeners) {
+                listener.onSnapshot(snapshot);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+
+/**
+ * 候选密钥集合
+ * 以1024位位图 (long[16]) 表示，密钥k对应第k/64个long的第k%64位。
+ * 多对明密文的求交只需16次与运算，统计候选数量只需16次popcount
+ */
+public class KeyCandidateSet {
+
+    // 位图的long个数
+    public static final int WORDS = SDESCodebook.KEY_COUNT / Long.SIZE;
+
+    private final long[] bits;
+
+    private KeyCandidateSet(long[] bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * 包含全部1024个密钥的集合
+     */
+    public static KeyCandidateSet all() {
+        long[] bits = new long[WORDS];
+        Arrays.fill(bits, -1L);
+        return new KeyCandidateSet(bits);
+    }
+
+    /**
+     * 空集合
+     */
+    public static KeyCandidateSet none() {
+        return new KeyCandidateSet(new long[WORDS]);
+    }
+
+    /**
+     * 由位图创建集合
+     * @param bitmap 16个long的位图，会被复制
+     */
+    public static KeyCandidateSet fromBitmap(long[] bitmap) {
+        if (bitmap.length != WORDS) {
+            throw new IllegalArgumentException("位图长度必须为" + WORDS);
+        }
+        return new KeyCandidateSet(bitmap.clone());
+    }
+
+    /**
+     * 能将明文加密为密文的全部密钥，用16遍位切片计算得到
+     * @param plaintext 8位明文
+     * @param ciphertext 8位密文
+     */
+    public static KeyCandidateSet forPair(int plaintext, int ciphertext) {
+        return new KeyCandidateSet(BitslicedSDES.matchAllKeys(plaintext, ciphertext));
+    }
+
+    /**
+     * 同时满足全部明密文对的密钥，交集为空后不再计算剩余的明密文对
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，与明文一一对应
+     */
+    public static KeyCandidateSet forPairs(int[] plaintexts, int[] ciphertexts) {
+        KeyCandidateSet result = all();
+        for (int p = 0; p < plaintexts.length && !result.isEmpty(); p++) {
+            result.retainAll(forPair(plaintexts[p], ciphertexts[p]));
+        }
+        return result;
+    }
+
+    /**
+     * 与另一个集合求交集，结果保存在本集合中
+     * @param other 另一个集合
+     */
+    public void retainAll(KeyCandidateSet other) {
+        for (int i = 0; i < WORDS; i++) {
+            bits[i] &= other.bits[i];
+        }
+    }
+
+    /**
+     * 返回与另一个集合的交集，不修改本集合
+     */
+    public KeyCandidateSet intersect(KeyCandidateSet other) {
+        KeyCandidateSet result = copy();
+        result.retainAll(other);
+        return result;
+    }
+
+    /**
+     * 设置位图中的一个字
+     * @param word 字下标 (0-15)，对应密钥 word*64 到 word*64+63
+     * @param value 该字的位图
+     */
+    public void setWord(int word, long value) {
+        bits[word] = value;
+    }
+
+    public void add(int key) {
+        bits[key >>> 6] |= 1L << key;
+    }
+
+    public boolean contains(int key) {
+        return (bits[key >>> 6] & (1L << key)) != 0;
+    }
+
+    public boolean isEmpty() {
+        for (long word : bits) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 候选密钥数量
+     */
+    public int size() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * 按升序返回全部候选密钥
+     */
+    public int[] toArray() {
+        int[] keys = new int[size()];
+        int n = 0;
+        for (int i = 0; i < WORDS; i++) {
+            long word = bits[i];
+            while (word != 0L) {
+                keys[n++] = (i << 6) | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 返回位图的副本
+     */
+    public long[] toBitmap() {
+        return bits.clone();
+    }
+
+    public KeyCandidateSet copy() {
+        return new KeyCandidateSet(bits.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof KeyCandidateSet && Arrays.equals(bits, ((KeyCandidateSet) o).bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bits);
+    }
+}
\ No newline at end of file
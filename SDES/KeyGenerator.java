@@ -4,6 +4,24 @@
  */
 public class KeyGenerator {
     
+    // 全部1024个密钥的子密钥表，每项高8位为K1，低8位为K2
+    private static final short[] SUB_KEY_TABLE = new short[1024];
+    
+    static {
+        for (int key = 0; key < SUB_KEY_TABLE.length; key++) {
+            SUB_KEY_TABLE[key] = (short) generateSubKeys(key);
+        }
+    }
+    
+    /**
+     * 查表获取两个子密钥（位打包版本）
+     * @param key 10位主密钥，第1位为最高位，仅使用低10位
+     * @return 打包后的子密钥，高8位为K1，低8位为K2
+     */
+    public static int getSubKeys(int key) {
+        return SUB_KEY_TABLE[key & 0x3FF] & 0xFFFF;
+    }
+    
     /**
      * 生成两个子密钥
      * @param key 10位主密钥
@@ -79,4 +97,44 @@ public class KeyGenerator {
         System.arraycopy(right, 0, merged, 5, 5);
         return merged;
     }
+    
+    /**
+     * 生成两个子密钥（位打包版本，不分配数组）
+     * @param key 10位主密钥，第1位为最高位
+     * @return 打包后的子密钥，高8位为K1，低8位为K2
+     */
+    public static int generateSubKeys(int key) {
+        // 步骤1: 对10位密钥进行P10置换
+        int p10Key = Permutation.permute(key & 0x3FF, Permutation.P10, 10);
+        
+        // 步骤2: 将结果分为左右各5位
+        int left = p10Key >>> 5;
+        int right = p10Key & 0x1F;
+        
+        // 步骤3: 对左右部分分别进行左移1位
+        left = leftShift(left, 1);
+        right = leftShift(right, 1);
+        
+        // 步骤4: 合并后通过P8置换生成K1
+        int k1 = Permutation.permute((left << 5) | right, Permutation.P8, 10);
+        
+        // 步骤5: 对左右部分分别再进行左移2位（总共左移3位）
+        left = leftShift(left, 2);
+        right = leftShift(right, 2);
+        
+        // 步骤6: 合并后通过P8置换生成K2
+        int k2 = Permutation.permute((left << 5) | right, Permutation.P8, 10);
+        
+        return (k1 << 8) | k2;
+    }
+    
+    /**
+     * 循环左移（位打包版本）
+     * @param input 5位输入
+     * @param shifts 左移位数
+     * @return 左移后的5位输出
+     */
+    private static int leftShift(int input, int shifts) {
+        return ((input << shifts) | (input >>> (5 - shifts))) & 0x1F;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,365 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分布式密钥搜索的协调者
+ * 把KeySpaceSearch划分的工作单元通过TCP分发给工作进程（KeySearchWorker），工作进程每完成一个单元
+ * 就把结果发回。工作进程按固定间隔发送心跳，超时未收到任何消息的连接被视为丢失，其未完成的单元重新排队；
+ * 所有单元都已分发后，空闲的工作进程会领到分发最早的未完成单元的副本，先返回的结果有效
+ *
+ * 协议 (DataInputStream/DataOutputStream)，每条消息以一个类型字节开头：
+ *   工作进程 → 协调者：HELLO 版本号；REQUEST 最多单元数；RESULT 单元号 密钥数 密钥...；HEARTBEAT
+ *   协调者 → 工作进程：JOB 变体名 明密文对数 (明文 密文)...；ASSIGN 单元数 单元号...；WAIT；DONE
+ */
+public class KeySearchCoordinator implements AutoCloseable {
+
+    static final int PROTOCOL_VERSION = 1;
+    static final byte HELLO = 1;
+    static final byte JOB = 2;
+    static final byte REQUEST = 3;
+    static final byte ASSIGN = 4;
+    static final byte WAIT = 5;
+    static final byte DONE = 6;
+    static final byte RESULT = 7;
+    static final byte HEARTBEAT = 8;
+
+    // 工作进程发送心跳的间隔
+    static final int HEARTBEAT_INTERVAL_MILLIS = 1000;
+
+    // 超过该时间没有收到任何消息即视为工作进程丢失
+    static final int HEARTBEAT_TIMEOUT_MILLIS = 5000;
+
+    // 单元分发超过该时间仍未完成时，允许空闲的工作进程领取副本
+    private static final long SPECULATIVE_AFTER_MILLIS = 2000;
+
+    private final SDESVariant variant;
+    private final int[] plaintexts;
+    private final int[] ciphertexts;
+    private final ServerSocket server;
+    private final ExecutorService connections = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "key-search-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 以下状态由this保护
+    private final Set<Socket> sockets = new HashSet<>();
+    private final List<Process> processes = new ArrayList<>();
+    private final Deque<Integer> pending = new ArrayDeque<>();
+    private final BitSet completed = new BitSet();
+    private final long[] issuedAt;
+    private final int[] holders;
+    private int[] candidates = new int[16];
+    private int candidateCount;
+    private JobTelemetry telemetry;
+    private ResultListener listener;
+
+    /**
+     * 结果订阅者，每个单元首次完成时在连接线程上回调
+     */
+    public interface ResultListener {
+        void onUnitComplete(int unit, int[] keys);
+    }
+
+    /**
+     * @param variant 加密变体
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，与明文一一对应
+     * @param port 监听端口，0表示自动选择
+     * @param bindAddress 监听地址，为null时监听所有地址
+     * @throws IOException 无法监听端口
+     */
+    public KeySearchCoordinator(SDESVariant variant, int[] plaintexts, int[] ciphertexts, int port,
+                                InetAddress bindAddress) throws IOException {
+        KeySpaceSearch.checkPairs(variant, plaintexts, ciphertexts);
+        this.variant = variant;
+        this.plaintexts = plaintexts.clone();
+        this.ciphertexts = ciphertexts.clone();
+        int units = KeySpaceSearch.unitCount(variant);
+        this.issuedAt = new long[units];
+        this.holders = new int[units];
+        for (int unit = 0; unit < units; unit++) {
+            pending.add(unit);
+        }
+        this.server = new ServerSocket(port, 50, bindAddress);
+    }
+
+    /**
+     * 只在本机回环地址上监听的协调者，配合launchLocalWorkers使用
+     */
+    public static KeySearchCoordinator loopback(SDESVariant variant, int[] plaintexts, int[] ciphertexts)
+            throws IOException {
+        return new KeySearchCoordinator(variant, plaintexts, ciphertexts, 0, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public synchronized void setListener(ResultListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param telemetry 每完成一个单元累加已测试的密钥数，可以为null
+     */
+    public synchronized void setTelemetry(JobTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * 开始接受工作进程的连接
+     */
+    public void start() {
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    synchronized (this) {
+                        sockets.add(socket);
+                    }
+                    connections.execute(() -> serve(socket));
+                } catch (IOException e) {
+                    // 服务端套接字已关闭
+                }
+            }
+        }, "key-search-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * 在本机启动若干工作进程JVM，使用与当前进程相同的类路径
+     * @param count 进程数
+     * @return 已启动的进程
+     * @throws IOException 启动失败
+     */
+    public List<Process> launchLocalWorkers(int count) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    "KeySearchWorker", InetAddress.getLoopbackAddress().getHostAddress(), String.valueOf(getPort()));
+            builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            processes.add(builder.start());
+        }
+        synchronized (this) {
+            this.processes.addAll(processes);
+        }
+        return processes;
+    }
+
+    /**
+     * 等待全部单元完成
+     * 既没有已连接的工作进程、launchLocalWorkers启动的进程也都已退出时，搜索无法继续，
+     * 这种状态持续超过给定时间即放弃等待
+     * @param idleTimeoutMillis 没有工作进程时最多等待的时间（毫秒）
+     * @return 满足全部明密文对的组合密钥，从小到大排列
+     * @throws IOException 没有工作进程的时间超过idleTimeoutMillis
+     * @throws InterruptedException 等待过程中被中断
+     */
+    public synchronized int[] awaitResult(long idleTimeoutMillis) throws IOException, InterruptedException {
+        long idleSince = -1;
+        while (!isComplete()) {
+            long now = System.currentTimeMillis();
+            if (!sockets.isEmpty() || processes.stream().anyMatch(Process::isAlive)) {
+                idleSince = -1;
+            } else if (idleSince < 0) {
+                idleSince = now;
+            } else if (now - idleSince >= idleTimeoutMillis) {
+                throw new IOException("没有可用的工作进程，已完成 " + completed.cardinality() + "/"
+                        + issuedAt.length + " 个单元");
+            }
+            // 进程退出不会唤醒等待，按心跳间隔检查
+            wait(HEARTBEAT_INTERVAL_MILLIS);
+        }
+        int[] result = Arrays.copyOf(candidates, candidateCount);
+        Arrays.sort(result);
+        return result;
+    }
+
+    public synchronized boolean isComplete() {
+        return completed.cardinality() == issuedAt.length;
+    }
+
+    public synchronized int getCompletedUnits() {
+        return completed.cardinality();
+    }
+
+    /**
+     * 停止监听并断开所有工作进程的连接
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        List<Socket> open;
+        synchronized (this) {
+            open = new ArrayList<>(sockets);
+        }
+        for (Socket socket : open) {
+            // 关闭套接字使阻塞在读取上的连接线程立即返回
+            socket.close();
+        }
+        connections.shutdown();
+    }
+
+    /**
+     * 处理一个工作进程的连接
+     */
+    private void serve(Socket socket) {
+        Set<Integer> assigned = new HashSet<>();
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            s.setSoTimeout(HEARTBEAT_TIMEOUT_MILLIS);
+            // 请求和应答都是小消息，关闭Nagle算法避免与延迟确认叠加造成的停顿
+            s.setTcpNoDelay(true);
+            if (in.readByte() != HELLO || in.readInt() != PROTOCOL_VERSION) {
+                return;
+            }
+            out.writeByte(JOB);
+            out.writeUTF(variant.name());
+            out.writeInt(plaintexts.length);
+            for (int p = 0; p < plaintexts.length; p++) {
+                out.writeByte(plaintexts[p]);
+                out.writeByte(ciphertexts[p]);
+            }
+            out.flush();
+
+            while (true) {
+                byte type = in.readByte();
+                if (type == HEARTBEAT) {
+                    continue;
+                } else if (type == RESULT) {
+                    int unit = in.readInt();
+                    int[] keys = new int[in.readInt()];
+                    for (int i = 0; i < keys.length; i++) {
+                        keys[i] = in.readInt();
+                    }
+                    assigned.remove(unit);
+                    complete(unit, keys);
+                } else if (type == REQUEST) {
+                    int[] units = assign(in.readInt(), assigned);
+                    if (units == null) {
+                        out.writeByte(DONE);
+                        out.flush();
+                        return;
+                    } else if (units.length == 0) {
+                        out.writeByte(WAIT);
+                    } else {
+                        out.writeByte(ASSIGN);
+                        out.writeInt(units.length);
+                        for (int unit : units) {
+                            out.writeInt(unit);
+                        }
+                    }
+                    out.flush();
+                } else {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // 连接断开或心跳超时，下面重新排队
+        } finally {
+            release(socket, assigned);
+        }
+    }
+
+    /**
+     * 为工作进程分配单元
+     * @return 分配的单元；暂时没有可分配的单元时为空数组；全部完成时为null
+     */
+    private synchronized int[] assign(int max, Set<Integer> assigned) {
+        if (isComplete()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        List<Integer> units = new ArrayList<>();
+        while (units.size() < max && !pending.isEmpty()) {
+            int unit = pending.poll();
+            if (!completed.get(unit)) {
+                units.add(unit);
+            }
+        }
+        if (units.isEmpty()) {
+            // 没有排队的单元时，领取分发最早且超时未完成的单元的副本
+            int oldest = -1;
+            for (int unit = completed.nextClearBit(0); unit < issuedAt.length; unit = completed.nextClearBit(unit + 1)) {
+                if (!assigned.contains(unit) && now - issuedAt[unit] >= SPECULATIVE_AFTER_MILLIS
+                        && (oldest < 0 || issuedAt[unit] < issuedAt[oldest])) {
+                    oldest = unit;
+                }
+            }
+            if (oldest >= 0) {
+                units.add(oldest);
+            }
+        }
+        for (int unit : units) {
+            issuedAt[unit] = now;
+            holders[unit]++;
+            assigned.add(unit);
+        }
+        return units.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 记录单元结果，重复的结果被忽略
+     */
+    private void complete(int unit, int[] keys) {
+        ResultListener target;
+        synchronized (this) {
+            if (unit < 0 || unit >= issuedAt.length || completed.get(unit)) {
+                return;
+            }
+            completed.set(unit);
+            holders[unit]--;
+            for (int key : keys) {
+                if (candidateCount == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                }
+                candidates[candidateCount++] = key;
+            }
+            if (telemetry != null) {
+                telemetry.addCompleted(1L << KeySpaceSearch.unitBits(variant));
+            }
+            target = listener;
+            notifyAll();
+        }
+        if (target != null) {
+            target.onUnitComplete(unit, keys);
+        }
+    }
+
+    /**
+     * 连接结束时，把没有其他工作进程在处理的未完成单元放回队首
+     */
+    private synchronized void release(Socket socket, Set<Integer> assigned) {
+        sockets.remove(socket);
+        notifyAll();
+        for (int unit : assigned) {
+            holders[unit]--;
+            if (!completed.get(unit) && holders[unit] == 0) {
+                pending.addFirst(unit);
+            }
+        }
+        assigned.clear();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.stream.IntStream;
+
+/**
+ * 分布式密钥搜索的工作进程
+ * 连接KeySearchCoordinator，按本机核数成批领取工作单元，用KeySpaceSearch.searchUnit并行搜索，
+ * 每完成一个单元立即把结果发回；后台线程按固定间隔发送心跳
+ */
+public class KeySearchWorker {
+
+    // 默认每个核每次领取的单元数，单元较小时减少请求往返
+    private static final int UNITS_PER_CORE = 4;
+
+    // 协调者暂时没有可分配的单元时，再次请求前的等待时间
+    private static final long WAIT_MILLIS = 200;
+
+    private final String host;
+    private final int port;
+    private final int batchSize;
+
+    /**
+     * @param host 协调者地址
+     * @param port 协调者端口
+     * @param batchSize 每次领取的单元数
+     */
+    public KeySearchWorker(String host, int port, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("每次领取的单元数必须大于0");
+        }
+        this.host = host;
+        this.port = port;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 连接协调者并处理单元，直到全部单元完成
+     * @return 本进程完成的单元数
+     * @throws IOException 连接失败或连接中断
+     */
+    public int run() throws IOException {
+        try (Socket socket = new Socket(host, port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            synchronized (out) {
+                out.writeByte(KeySearchCoordinator.HELLO);
+                out.writeInt(KeySearchCoordinator.PROTOCOL_VERSION);
+                out.flush();
+            }
+            if (in.readByte() != KeySearchCoordinator.JOB) {
+                throw new IOException("协调者返回了无效的消息");
+            }
+            SDESVariant variant = SDESVariant.valueOf(in.readUTF());
+            int[] plaintexts = new int[in.readInt()];
+            int[] ciphertexts = new int[plaintexts.length];
+            for (int p = 0; p < plaintexts.length; p++) {
+                plaintexts[p] = in.readUnsignedByte();
+                ciphertexts[p] = in.readUnsignedByte();
+            }
+            SDESCodebook.preload();
+
+            Thread heartbeat = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        Thread.sleep(KeySearchCoordinator.HEARTBEAT_INTERVAL_MILLIS);
+                        synchronized (out) {
+                            out.writeByte(KeySearchCoordinator.HEARTBEAT);
+                            out.flush();
+                        }
+                    }
+                } catch (InterruptedException | IOException e) {
+                    // 连接关闭时结束
+                }
+            }, "key-search-heartbeat");
+            heartbeat.setDaemon(true);
+            heartbeat.start();
+
+            int processed = 0;
+            try {
+                while (true) {
+                    synchronized (out) {
+                        out.writeByte(KeySearchCoordinator.REQUEST);
+                        out.writeInt(batchSize);
+                        out.flush();
+                    }
+                    byte type = in.readByte();
+                    if (type == KeySearchCoordinator.DONE) {
+                        return processed;
+                    } else if (type == KeySearchCoordinator.WAIT) {
+                        Thread.sleep(WAIT_MILLIS);
+                        continue;
+                    } else if (type != KeySearchCoordinator.ASSIGN) {
+                        throw new IOException("协调者返回了无效的消息");
+                    }
+
+                    int[] units = new int[in.readInt()];
+                    for (int i = 0; i < units.length; i++) {
+                        units[i] = in.readInt();
+                    }
+                    IntStream.of(units).parallel().forEach(unit -> {
+                        int[] keys = KeySpaceSearch.searchUnit(variant, plaintexts, ciphertexts, unit);
+                        try {
+                            synchronized (out) {
+                                out.writeByte(KeySearchCoordinator.RESULT);
+                                out.writeInt(unit);
+                                out.writeInt(keys.length);
+                                for (int key : keys) {
+                                    out.writeInt(key);
+                                }
+                                out.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    processed += units.length;
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return processed;
+            } finally {
+                heartbeat.interrupt();
+            }
+        }
+    }
+
+    /**
+     * 命令行入口
+     * 用法: java KeySearchWorker 协调者地址 端口 [每次领取的单元数]
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("用法: java KeySearchWorker 协调者地址 端口 [每次领取的单元数]");
+            System.exit(2);
+        }
+        try {
+            int batchSize = args.length > 2 ? Integer.parseInt(args[2])
+                    : UNITS_PER_CORE * Runtime.getRuntime().availableProcessors();
+            int processed = new KeySearchWorker(args[0], Integer.parseInt(args[1]), batchSize).run();
+            System.out.println("units=" + processed);
+        } catch (IllegalArgumentException e) {
+            System.err.println("参数错误: " + e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("连接失败: " + e.getMessage());
+            System.exit(3);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,279 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * 多重S-DES的穷举搜索，支持检查点和断点续传
+ * 组合密钥空间按编号划分为工作单元，每个单元2^16个密钥（密钥空间更小时为整个空间）。
+ * 各单元在公共ForkJoinPool上并行搜索，已完成的单元和候选密钥定期写入检查点文件，
+ * 重新启动后跳过已完成的单元
+ *
+ * 检查点文件格式 (DataOutputStream)：
+ *   8字节魔数 "SDESCKP1"，变体名，明密文对数及各对的明文和密文字节，
+ *   单元数，已完成单元位图（long数组），候选密钥数及各候选密钥
+ */
+public class KeySpaceSearch {
+
+    // 每个工作单元的密钥位数
+    public static final int UNIT_BITS = 16;
+
+    // 两次写检查点的最小间隔
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 1000;
+
+    // 预期候选密钥数的上限 (2^16)，明密文对少于此要求时拒绝搜索
+    private static final int MAX_EXPECTED_CANDIDATE_BITS = 16;
+
+    private static final byte[] MAGIC = {'S', 'D', 'E', 'S', 'C', 'K', 'P', '1'};
+
+    private final SDESVariant variant;
+    private final int[] plaintexts;
+    private final int[] ciphertexts;
+    private final Path checkpoint;
+    private final BitSet completed;
+    private int[] candidates = new int[16];
+    private int candidateCount;
+    private long lastSaved;
+    private volatile boolean cancelled;
+
+    /**
+     * @param variant 加密变体
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，与明文一一对应
+     * @param checkpoint 检查点文件，为null时不保存进度
+     */
+    public KeySpaceSearch(SDESVariant variant, int[] plaintexts, int[] ciphertexts, Path checkpoint) {
+        checkPairs(variant, plaintexts, ciphertexts);
+        this.variant = variant;
+        this.plaintexts = plaintexts.clone();
+        this.ciphertexts = ciphertexts.clone();
+        this.checkpoint = checkpoint;
+        this.completed = new BitSet(unitCount(variant));
+    }
+
+    /**
+     * 检查明密文对是否有效且足以把候选密钥限制在可保存的数量内
+     */
+    static void checkPairs(SDESVariant variant, int[] plaintexts, int[] ciphertexts) {
+        if (plaintexts.length != ciphertexts.length) {
+            throw new IllegalArgumentException("明文数与密文数不一致");
+        }
+        for (int p = 0; p < plaintexts.length; p++) {
+            if ((plaintexts[p] & ~0xFF) != 0 || (ciphertexts[p] & ~0xFF) != 0) {
+                throw new IllegalArgumentException("第" + (p + 1) + "对明密文不是8位数据");
+            }
+        }
+        int required = Math.max(1, (variant.keyBits() - MAX_EXPECTED_CANDIDATE_BITS + 7) / 8);
+        if (plaintexts.length < required) {
+            throw new IllegalArgumentException(variant + "至少需要" + required + "对明密文");
+        }
+    }
+
+    /**
+     * 工作单元的密钥位数
+     */
+    public static int unitBits(SDESVariant variant) {
+        return Math.min(UNIT_BITS, variant.keyBits());
+    }
+
+    /**
+     * 工作单元数
+     */
+    public static int unitCount(SDESVariant variant) {
+        return 1 << (variant.keyBits() - unitBits(variant));
+    }
+
+    /**
+     * 搜索一个工作单元
+     * @param variant 加密变体
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，与明文一一对应
+     * @param unit 单元编号
+     * @return 单元内满足全部明密文对的组合密钥，从小到大排列
+     */
+    public static int[] searchUnit(SDESVariant variant, int[] plaintexts, int[] ciphertexts, int unit) {
+        int start = unit << unitBits(variant);
+        int end = start + (1 << unitBits(variant));
+        int plaintext = plaintexts[0];
+        int ciphertext = ciphertexts[0];
+
+        int[] found = new int[4];
+        int count = 0;
+        for (int key = start; key < end; key++) {
+            if (variant.encrypt(plaintext, key) != ciphertext) {
+                continue;
+            }
+            int p = 1;
+            while (p < plaintexts.length && variant.encrypt(plaintexts[p], key) == ciphertexts[p]) {
+                p++;
+            }
+            if (p == plaintexts.length) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = key;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * 搜索全部未完成的工作单元
+     * 检查点文件存在时先读取，已完成的单元不再搜索；返回前写入最终检查点
+     * @param telemetry 每完成一个单元累加已测试的密钥数，可以为null
+     * @return 目前找到的候选密钥，从小到大排列；被取消时只包含已完成单元中的密钥
+     * @throws IOException 读写检查点失败，或检查点与当前任务不匹配
+     */
+    public int[] run(JobTelemetry telemetry) throws IOException {
+        SDESCodebook.preload();
+        if (checkpoint != null && Files.exists(checkpoint)) {
+            load();
+        }
+
+        int[] pending = IntStream.range(0, unitCount(variant)).filter(unit -> !completed.get(unit)).toArray();
+        int unitSize = 1 << unitBits(variant);
+        try {
+            IntStream.of(pending).parallel().forEach(unit -> {
+                if (cancelled) {
+                    return;
+                }
+                int[] found = searchUnit(variant, plaintexts, ciphertexts, unit);
+                synchronized (this) {
+                    completed.set(unit);
+                    for (int key : found) {
+                        addCandidate(key);
+                    }
+                    long now = System.currentTimeMillis();
+                    if (checkpoint != null && now - lastSaved >= CHECKPOINT_INTERVAL_MILLIS) {
+                        try {
+                            save();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        lastSaved = now;
+                    }
+                }
+                if (telemetry != null) {
+                    telemetry.addCompleted(unitSize);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        synchronized (this) {
+            if (checkpoint != null) {
+                save();
+            }
+            return getCandidates();
+        }
+    }
+
+    /**
+     * 请求停止搜索，正在搜索的单元完成后run返回
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 全部工作单元是否都已完成
+     */
+    public synchronized boolean isComplete() {
+        return completed.cardinality() == unitCount(variant);
+    }
+
+    public synchronized int getCompletedUnits() {
+        return completed.cardinality();
+    }
+
+    /**
+     * 目前找到的候选密钥，从小到大排列
+     */
+    public synchronized int[] getCandidates() {
+        int[] result = Arrays.copyOf(candidates, candidateCount);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void addCandidate(int key) {
+        if (candidateCount == candidates.length) {
+            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+        }
+        candidates[candidateCount++] = key;
+    }
+
+    /**
+     * 写检查点，先写临时文件再原子替换，崩溃时旧检查点仍然完整
+     */
+    private void save() throws IOException {
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.write(MAGIC);
+            out.writeUTF(variant.name());
+            out.writeInt(plaintexts.length);
+            for (int p = 0; p < plaintexts.length; p++) {
+                out.writeByte(plaintexts[p]);
+                out.writeByte(ciphertexts[p]);
+            }
+            int units = unitCount(variant);
+            out.writeInt(units);
+            long[] words = Arrays.copyOf(completed.toLongArray(), (units + Long.SIZE - 1) / Long.SIZE);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+            out.writeInt(candidateCount);
+            for (int i = 0; i < candidateCount; i++) {
+                out.writeInt(candidates[i]);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 读取检查点，确认它属于同一个变体和同一组明密文对
+     */
+    private synchronized void load() throws IOException {
+        try (InputStream file = Files.newInputStream(checkpoint);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("不是有效的检查点文件: " + checkpoint);
+            }
+            boolean matches = variant.name().equals(in.readUTF()) && in.readInt() == plaintexts.length;
+            for (int p = 0; matches && p < plaintexts.length; p++) {
+                matches = in.readUnsignedByte() == plaintexts[p] && in.readUnsignedByte() == ciphertexts[p];
+            }
+            int units = unitCount(variant);
+            if (!matches || in.readInt() != units) {
+                throw new IOException("检查点与当前任务不匹配: " + checkpoint);
+            }
+            long[] words = new long[(units + Long.SIZE - 1) / Long.SIZE];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            completed.clear();
+            completed.or(BitSet.valueOf(words));
+            int count = in.readInt();
+            candidates = new int[Math.max(16, count)];
+            for (int i = 0; i < count; i++) {
+                candidates[i] = in.readInt();
+            }
+            candidateCount = count;
+        }
+    }
+}
\ No newline at end of file
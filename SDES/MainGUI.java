@@ -1,10 +1,13 @@
 import javax.swing.*;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DocumentFilter;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -34,6 +37,20 @@ public class MainGUI extends JFrame {
     private JTextArea bruteForceResultArea;
     private JProgressBar progressBar;
     private JLabel statusLabel;
+    private JComboBox<BruteForceProcessor.Engine> engineComboBox;
+    private JLabel candidateCountLabel;
+
+    // 随表格编辑增量维护的候选密钥
+    private IncrementalCracker incrementalCracker;
+
+    // 文件加解密组件
+    private JTextField fileInputField;
+    private JTextField fileOutputField;
+    private JTextField fileKeyField;
+    private JTextField fileIvField;
+    private JComboBox<SDESCipher.Mode> fileModeComboBox;
+    private JProgressBar fileProgressBar;
+    private JLabel fileStatusLabel;
 
     // 暴力破解处理器
     private BruteForceProcessor bruteForceProcessor;
@@ -70,6 +87,16 @@ public class MainGUI extends JFrame {
         decryptInputType = new JComboBox<>(inputTypes);
         decryptOutputType = new JComboBox<>(inputTypes);
 
+        // 初始化文件加解密面板组件
+        fileInputField = new JTextField(30);
+        fileOutputField = new JTextField(30);
+        fileKeyField = new JTextField(20);
+        fileIvField = new JTextField("00000000", 20);
+        fileModeComboBox = new JComboBox<>(SDESCipher.Mode.values());
+        fileProgressBar = new JProgressBar(0, 100);
+        fileProgressBar.setStringPainted(true);
+        fileStatusLabel = new JLabel("就绪");
+
         // 初始化暴力破解面板组件
         initBruteForceComponents();
 
@@ -109,6 +136,15 @@ public class MainGUI extends JFrame {
 
         statusLabel = new JLabel("就绪");
         statusLabel.setBorder(BorderFactory.createLoweredBevelBorder());
+
+        // 明密文对索引加载完成后才加入INDEX
+        engineComboBox = new JComboBox<>(new BruteForceProcessor.Engine[]{
+                BruteForceProcessor.Engine.DIRECT, BruteForceProcessor.Engine.CODEBOOK,
+                BruteForceProcessor.Engine.BITSLICED});
+        engineComboBox.setToolTipText("预计算码本: 首次使用时预先计算全部密钥的加密表；位切片: 每遍同时测试64个密钥");
+
+        incrementalCracker = new IncrementalCracker();
+        candidateCountLabel = new JLabel();
     }
 
     // 二进制输入过滤器 - 只允许输入0和1
@@ -247,6 +283,10 @@ public class MainGUI extends JFrame {
         JPanel bruteForcePanel = createBruteForcePanel();
         tabbedPane.addTab("暴力破解", bruteForcePanel);
 
+        // 文件加解密面板
+        JPanel filePanel = createFilePanel();
+        tabbedPane.addTab("文件加解密", filePanel);
+
         add(tabbedPane);
     }
 
@@ -393,6 +433,93 @@ public class MainGUI extends JFrame {
         return panel;
     }
 
+    private JPanel createFilePanel() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(10, 10, 10, 10);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        // 标题
+        gbc.gridx = 0; gbc.gridy = 0; gbc.gridwidth = 3;
+        JLabel titleLabel = new JLabel("S-DES 文件加解密 - 内存映射处理大文件", JLabel.CENTER);
+        titleLabel.setFont(new Font("微软雅黑", Font.BOLD, 18));
+        panel.add(titleLabel, gbc);
+
+        // 输入文件
+        gbc.gridx = 0; gbc.gridy = 1; gbc.gridwidth = 1;
+        panel.add(new JLabel("输入文件:"), gbc);
+
+        gbc.gridx = 1; gbc.gridy = 1;
+        panel.add(fileInputField, gbc);
+
+        gbc.gridx = 2; gbc.gridy = 1;
+        JButton browseInputButton = new JButton("浏览...");
+        panel.add(browseInputButton, gbc);
+
+        // 输出文件
+        gbc.gridx = 0; gbc.gridy = 2;
+        panel.add(new JLabel("输出文件:"), gbc);
+
+        gbc.gridx = 1; gbc.gridy = 2;
+        panel.add(fileOutputField, gbc);
+
+        gbc.gridx = 2; gbc.gridy = 2;
+        JButton browseOutputButton = new JButton("浏览...");
+        panel.add(browseOutputButton, gbc);
+
+        // 密钥输入
+        gbc.gridx = 0; gbc.gridy = 3;
+        panel.add(new JLabel("10位二进制密钥:"), gbc);
+
+        gbc.gridx = 1; gbc.gridy = 3; gbc.gridwidth = 2;
+        panel.add(fileKeyField, gbc);
+
+        // 工作模式
+        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 1;
+        panel.add(new JLabel("工作模式:"), gbc);
+
+        gbc.gridx = 1; gbc.gridy = 4; gbc.gridwidth = 2;
+        panel.add(fileModeComboBox, gbc);
+
+        // 初始向量
+        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 1;
+        panel.add(new JLabel("8位二进制IV:"), gbc);
+
+        gbc.gridx = 1; gbc.gridy = 5; gbc.gridwidth = 2;
+        panel.add(fileIvField, gbc);
+
+        // 加解密按钮
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton encryptFileButton = new JButton("加密文件");
+        encryptFileButton.setBackground(new Color(70, 130, 180));
+        encryptFileButton.setForeground(Color.WHITE);
+        JButton decryptFileButton = new JButton("解密文件");
+        decryptFileButton.setBackground(new Color(70, 130, 180));
+        decryptFileButton.setForeground(Color.WHITE);
+        buttonPanel.add(encryptFileButton);
+        buttonPanel.add(decryptFileButton);
+
+        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 3;
+        panel.add(buttonPanel, gbc);
+
+        // 进度
+        gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 3;
+        panel.add(fileProgressBar, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 8; gbc.gridwidth = 3;
+        panel.add(fileStatusLabel, gbc);
+
+        // 按钮事件
+        browseInputButton.addActionListener(e -> chooseFile(fileInputField, false));
+        browseOutputButton.addActionListener(e -> chooseFile(fileOutputField, true));
+        encryptFileButton.addActionListener(e -> performFileCrypt(false));
+        decryptFileButton.addActionListener(e -> performFileCrypt(true));
+
+        return panel;
+    }
+
     private JPanel createBruteForcePanel() {
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
@@ -424,6 +551,7 @@ public class MainGUI extends JFrame {
         tableControlPanel.add(deleteRowButton);
         tableControlPanel.add(clearAllButton);
         tableControlPanel.add(generateTestButton);
+        tableControlPanel.add(candidateCountLabel);
 
         tablePanel.add(tableControlPanel, BorderLayout.SOUTH);
 
@@ -444,6 +572,8 @@ public class MainGUI extends JFrame {
         bruteForceButton.setBackground(new Color(220, 20, 60));
         bruteForceButton.setForeground(Color.WHITE);
         controlPanel.add(bruteForceButton);
+        controlPanel.add(new JLabel("加密引擎:"));
+        controlPanel.add(engineComboBox);
 
         // 结果面板
         JPanel resultPanel = new JPanel(new BorderLayout());
@@ -491,6 +621,34 @@ public class MainGUI extends JFrame {
             }
         });
 
+        // 随表格增删改增量维护候选密钥，表格在此之前已有的行先整体同步一次
+        resyncCandidates();
+        tableModel.addTableModelListener(e -> {
+            switch (e.getType()) {
+                case TableModelEvent.INSERT:
+                    for (int i = e.getFirstRow(); i <= e.getLastRow(); i++) {
+                        incrementalCracker.insertRow(i);
+                        syncCandidateRow(i);
+                    }
+                    break;
+                case TableModelEvent.DELETE:
+                    for (int i = e.getLastRow(); i >= e.getFirstRow(); i--) {
+                        incrementalCracker.removeRow(i);
+                    }
+                    break;
+                default:
+                    if (e.getFirstRow() == TableModelEvent.HEADER_ROW || e.getLastRow() >= tableModel.getRowCount()) {
+                        resyncCandidates();
+                    } else {
+                        for (int i = e.getFirstRow(); i <= e.getLastRow(); i++) {
+                            syncCandidateRow(i);
+                        }
+                    }
+                    break;
+            }
+            updateCandidateLabel();
+        });
+
         // 添加表格焦点监听器，在失去焦点时验证
         bruteForceTable.addFocusListener(new java.awt.event.FocusAdapter() {
             @Override
@@ -531,6 +689,8 @@ public class MainGUI extends JFrame {
         // 密钥字段始终使用二进制过滤器
         setDocumentFilter(encryptKeyField, new BinaryDocumentFilter(10), 10);
         setDocumentFilter(decryptKeyField, new BinaryDocumentFilter(10), 10);
+        setDocumentFilter(fileKeyField, new BinaryDocumentFilter(10), 10);
+        setDocumentFilter(fileIvField, new BinaryDocumentFilter(8), 8);
 
         // 暴力破解表格的单元格编辑器也使用二进制过滤器
         setupTableEditors();
@@ -696,6 +856,46 @@ public class MainGUI extends JFrame {
         }
     }
 
+    // 按表格内容同步某一行的明密文对
+    private void syncCandidateRow(int row) {
+        String plaintext = ((String) tableModel.getValueAt(row, 1)).trim();
+        String ciphertext = ((String) tableModel.getValueAt(row, 2)).trim();
+        if (isValidBinaryString(plaintext, 8) && isValidBinaryString(ciphertext, 8)) {
+            incrementalCracker.setPair(row, Utils.binaryStringToInt(plaintext), Utils.binaryStringToInt(ciphertext));
+        } else {
+            incrementalCracker.clearPair(row);
+        }
+    }
+
+    // 按整个表格重建候选密钥
+    private void resyncCandidates() {
+        incrementalCracker.clear();
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            incrementalCracker.insertRow(i);
+            syncCandidateRow(i);
+        }
+        updateCandidateLabel();
+    }
+
+    private void updateCandidateLabel() {
+        int pairCount = incrementalCracker.getValidPairCount();
+        if (pairCount == 0) {
+            candidateCountLabel.setText("实时候选密钥: -");
+            return;
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append("实时候选密钥: ").append(incrementalCracker.getCandidateCount())
+            .append(" 个 (有效明密文对 ").append(pairCount).append(" 对)");
+        int[] keys = incrementalCracker.getCandidates().toArray();
+        if (keys.length > 0 && keys.length <= 4) {
+            for (int key : keys) {
+                text.append(' ').append(Utils.intToBinaryString(key, 10));
+            }
+        }
+        candidateCountLabel.setText(text.toString());
+    }
+
     // 添加一个验证所有行的方法，在暴力破解前调用
     private boolean validateAllRows() {
         boolean allValid = true;
@@ -868,16 +1068,121 @@ public class MainGUI extends JFrame {
             @Override
             public void onComplete(List<String> foundKeys, int pairCount) {
                 SwingUtilities.invokeLater(() -> {
-                    displayBruteForceResults(foundKeys, pairCount);
+                    displayBruteForceResults(foundKeys, pairCount, validPairs);
                 });
             }
         });
 
         // 执行暴力破解
+        bruteForceProcessor.setEngine((BruteForceProcessor.Engine) engineComboBox.getSelectedItem());
         bruteForceProcessor.startBruteForce(validPairs);
     }
 
-    private void displayBruteForceResults(List<String> foundKeys, int pairCount) {
+    private void chooseFile(JTextField target, boolean save) {
+        JFileChooser chooser = new JFileChooser();
+        int result = save ? chooser.showSaveDialog(this) : chooser.showOpenDialog(this);
+        if (result == JFileChooser.APPROVE_OPTION) {
+            target.setText(chooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    private void performFileCrypt(boolean decrypt) {
+        String inputPath = fileInputField.getText().trim();
+        String outputPath = fileOutputField.getText().trim();
+        String key = fileKeyField.getText().trim();
+        String iv = fileIvField.getText().trim();
+        SDESCipher.Mode mode = (SDESCipher.Mode) fileModeComboBox.getSelectedItem();
+
+        if (inputPath.isEmpty() || outputPath.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "请选择输入文件和输出文件", "输入错误", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (!validateInput(key, 10, "密钥")) {
+            return;
+        }
+        if (mode != SDESCipher.Mode.ECB && !validateInput(iv, 8, "IV")) {
+            return;
+        }
+
+        int keyValue = Utils.binaryStringToInt(key);
+        int ivValue = mode == SDESCipher.Mode.ECB ? 0 : Utils.binaryStringToInt(iv);
+
+        fileProgressBar.setValue(0);
+        fileStatusLabel.setText(decrypt ? "正在解密..." : "正在加密...");
+
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                FileCrypter.process(Paths.get(inputPath), Paths.get(outputPath),
+                        keyValue, mode, ivValue, decrypt, snapshot -> SwingUtilities.invokeLater(() -> {
+                            fileStatusLabel.setText(snapshot.describe());
+                            fileProgressBar.setValue(snapshot.progress());
+                        }));
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    fileProgressBar.setValue(100);
+                    fileStatusLabel.setText(decrypt ? "解密完成" : "加密完成");
+                } catch (Exception ex) {
+                    fileStatusLabel.setText("就绪");
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(MainGUI.this, "文件处理错误: " + cause.getMessage(),
+                            "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * 在后台映射明密文对索引，不存在时先构建；完成后可在引擎列表中选择索引
+     */
+    private void loadPairIndex(String indexFile) {
+        statusLabel.setText("正在加载明密文对索引...");
+        new SwingWorker<PairKeyIndex, Void>() {
+            @Override
+            protected PairKeyIndex doInBackground() throws IOException {
+                return PairKeyIndex.openOrBuild(Paths.get(indexFile));
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    bruteForceProcessor.setPairKeyIndex(get());
+                    engineComboBox.addItem(BruteForceProcessor.Engine.INDEX);
+                    statusLabel.setText("明密文对索引已加载");
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    statusLabel.setText("明密文对索引加载失败: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * 没有密钥满足全部明密文对时，按满足的明密文对数列出最可能的密钥
+     */
+    private void appendRankedKeys(StringBuilder result, List<String[]> pairs) {
+        int[] plaintexts = new int[pairs.size()];
+        int[] ciphertexts = new int[pairs.size()];
+        for (int i = 0; i < pairs.size(); i++) {
+            plaintexts[i] = Utils.binaryStringToInt(pairs.get(i)[0]);
+            ciphertexts[i] = Utils.binaryStringToInt(pairs.get(i)[1]);
+        }
+        List<NoisyPairRanker.RankedKey> ranked = NoisyPairRanker.rank(plaintexts, ciphertexts, 5);
+
+        result.append("\n允许部分明密文对出错时最可能的密钥：\n");
+        result.append("=".repeat(50)).append("\n");
+        for (int i = 0; i < ranked.size(); i++) {
+            result.append(String.format("%d. %s\n", i + 1, ranked.get(i)));
+        }
+        result.append("=".repeat(50)).append("\n");
+    }
+
+    private void displayBruteForceResults(List<String> foundKeys, int pairCount, List<String[]> pairs) {
         StringBuilder result = new StringBuilder();
         result.append("暴力破解完成！\n\n");
         result.append("使用的明密文对数量: ").append(pairCount).append("\n");
@@ -888,6 +1193,9 @@ public class MainGUI extends JFrame {
             result.append("1. 明密文对数据有误\n");
             result.append("2. 明密文对数量不足\n");
             result.append("3. 存在数据传输错误\n");
+            if (pairs.size() > 1) {
+                appendRankedKeys(result, pairs);
+            }
         } else {
             result.append("\n找到 ").append(foundKeys.size()).append(" 个可能的密钥：\n");
             result.append("=".repeat(50)).append("\n");
@@ -949,8 +1257,14 @@ public class MainGUI extends JFrame {
             e.printStackTrace();
         }
 
+        // 通过 -Dsdes.pairIndex=文件 指定明密文对索引
+        String indexFile = System.getProperty("sdes.pairIndex");
         SwingUtilities.invokeLater(() -> {
-            new MainGUI().setVisible(true);
+            MainGUI gui = new MainGUI();
+            gui.setVisible(true);
+            if (indexFile != null) {
+                gui.loadPairIndex(indexFile);
+            }
         });
     }
 }
\ No newline at end of file
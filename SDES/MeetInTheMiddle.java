@@ -0,0 +1,92 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 针对双重S-DES的中间相遇攻击
+ * 用第一对明密文把全部k1的正向加密结果按8位中间值做计数排序，得到每个中间值对应的k1区间；
+ * 再对每个k2反向解密密文，只需核对同一中间值区间内的k1，最后用其余明密文对过滤。
+ * 工作量约为 2×1024 次单层运算加上 2^20/256 个候选的核对，而不是 2^20 × 明密文对数
+ */
+public class MeetInTheMiddle {
+
+    // 每个并行任务负责的k2个数
+    private static final int CHUNK_SIZE = 64;
+
+    private MeetInTheMiddle() {
+    }
+
+    /**
+     * 恢复双重S-DES的组合密钥
+     * @param plaintexts 8位明文数组，至少一对
+     * @param ciphertexts 8位密文数组，与明文一一对应，负数表示无效的明密文对
+     * @return 满足全部明密文对的组合密钥 (k1 << 10) | k2，从小到大排列
+     */
+    public static int[] attack(int[] plaintexts, int[] ciphertexts) {
+        if (plaintexts.length != ciphertexts.length) {
+            throw new IllegalArgumentException("明文数与密文数不一致");
+        }
+        if (plaintexts.length == 0) {
+            throw new IllegalArgumentException("至少需要一对明密文");
+        }
+        for (int ciphertext : ciphertexts) {
+            if (ciphertext < 0) {
+                return new int[0];
+            }
+        }
+        SDESCodebook.preload();
+
+        // 正向：按中间值计数排序，keysByMiddle[offsets[m], offsets[m + 1]) 是中间值为m的全部k1
+        int plaintext = plaintexts[0];
+        int[] offsets = new int[SDESCodebook.BLOCK_COUNT + 1];
+        int[] middles = new int[SDESCodebook.KEY_COUNT];
+        for (int k1 = 0; k1 < SDESCodebook.KEY_COUNT; k1++) {
+            middles[k1] = SDESCodebook.encrypt(plaintext, k1);
+            offsets[middles[k1] + 1]++;
+        }
+        for (int m = 0; m < SDESCodebook.BLOCK_COUNT; m++) {
+            offsets[m + 1] += offsets[m];
+        }
+        int[] keysByMiddle = new int[SDESCodebook.KEY_COUNT];
+        int[] next = Arrays.copyOf(offsets, SDESCodebook.BLOCK_COUNT);
+        for (int k1 = 0; k1 < SDESCodebook.KEY_COUNT; k1++) {
+            keysByMiddle[next[middles[k1]]++] = k1;
+        }
+
+        // 反向：各k2分组并行解密，在对应区间内核对其余明密文对
+        int ciphertext = ciphertexts[0];
+        int[][] found = new int[SDESCodebook.KEY_COUNT / CHUNK_SIZE][];
+        IntStream.range(0, found.length).parallel().forEach(chunk -> {
+            int[] keys = new int[16];
+            int count = 0;
+            for (int k2 = chunk * CHUNK_SIZE; k2 < (chunk + 1) * CHUNK_SIZE; k2++) {
+                int middle = SDESCodebook.decrypt(ciphertext, k2);
+                for (int i = offsets[middle]; i < offsets[middle + 1]; i++) {
+                    int k1 = keysByMiddle[i];
+                    if (matchesAll(plaintexts, ciphertexts, k1, k2)) {
+                        if (count == keys.length) {
+                            keys = Arrays.copyOf(keys, count * 2);
+                        }
+                        keys[count++] = DoubleSDES.packKey(k1, k2);
+                    }
+                }
+            }
+            found[chunk] = Arrays.copyOf(keys, count);
+        });
+
+        int[] result = Arrays.stream(found).flatMapToInt(Arrays::stream).toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * 检查除第一对以外的明密文对
+     */
+    private static boolean matchesAll(int[] plaintexts, int[] ciphertexts, int k1, int k2) {
+        for (int p = 1; p < plaintexts.length; p++) {
+            if (SDESCodebook.encrypt(SDESCodebook.encrypt(plaintexts[p], k1), k2) != ciphertexts[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+import java.util.stream.IntStream;
+
+/**
+ * 多任务批量已知明文攻击
+ * 大量相互独立的破解任务共用一次密钥空间遍历：对每个密钥只加密所有任务中出现过的不同明文各一次，
+ * 再用这张小表核对每个任务的明密文对。总工作量取决于不同明文的个数，而不是任务数×密钥数×明密文对数
+ */
+public class MultiJobCracker {
+
+    // 每个并行任务负责的密钥数，与候选集合的位图字对应
+    private static final int CHUNK_SIZE = Long.SIZE;
+    private static final int CHUNK_COUNT = SDESCodebook.KEY_COUNT / CHUNK_SIZE;
+
+    private MultiJobCracker() {
+    }
+
+    /**
+     * 批量破解
+     * @param plaintexts 每个任务的8位明文数组
+     * @param ciphertexts 每个任务的8位密文数组，与明文一一对应，负数表示无效的明密文对
+     * @return 每个任务的候选密钥集合，下标与任务一一对应
+     */
+    public static KeyCandidateSet[] crack(int[][] plaintexts, int[][] ciphertexts) {
+        return crack(plaintexts, ciphertexts, null);
+    }
+
+    /**
+     * 批量破解
+     * @param plaintexts 每个任务的8位明文数组
+     * @param ciphertexts 每个任务的8位密文数组，与明文一一对应，负数表示无效的明密文对
+     * @param telemetry 每完成一组密钥累加已测试的密钥数和明密文对数，可以为null
+     * @return 每个任务的候选密钥集合，下标与任务一一对应
+     */
+    public static KeyCandidateSet[] crack(int[][] plaintexts, int[][] ciphertexts, JobTelemetry telemetry) {
+        if (plaintexts.length != ciphertexts.length) {
+            throw new IllegalArgumentException("明文任务数与密文任务数不一致");
+        }
+        int jobCount = plaintexts.length;
+
+        // 把所有任务的明密文对平铺，同时收集不同的明文
+        int[] jobStart = new int[jobCount + 1];
+        for (int job = 0; job < jobCount; job++) {
+            if (plaintexts[job].length != ciphertexts[job].length) {
+                throw new IllegalArgumentException("第" + (job + 1) + "个任务的明文数与密文数不一致");
+            }
+            jobStart[job + 1] = jobStart[job] + plaintexts[job].length;
+        }
+        int[] pairPlaintexts = new int[jobStart[jobCount]];
+        int[] pairCiphertexts = new int[jobStart[jobCount]];
+        boolean[] seen = new boolean[SDESCodebook.BLOCK_COUNT];
+        int[] distinct = new int[SDESCodebook.BLOCK_COUNT];
+        int distinctCount = 0;
+        for (int job = 0; job < jobCount; job++) {
+            for (int p = 0; p < plaintexts[job].length; p++) {
+                int plaintext = plaintexts[job][p] & 0xFF;
+                pairPlaintexts[jobStart[job] + p] = plaintext;
+                pairCiphertexts[jobStart[job] + p] = ciphertexts[job][p];
+                if (!seen[plaintext]) {
+                    seen[plaintext] = true;
+                    distinct[distinctCount++] = plaintext;
+                }
+            }
+        }
+        final int distinctPlaintexts = distinctCount;
+
+        KeyCandidateSet[] results = new KeyCandidateSet[jobCount];
+        for (int job = 0; job < jobCount; job++) {
+            results[job] = KeyCandidateSet.none();
+        }
+
+        IntStream.range(0, CHUNK_COUNT).parallel().forEach(chunk -> {
+            int[] encrypted = new int[SDESCodebook.BLOCK_COUNT];
+            long[] words = new long[jobCount];
+            long pairsTested = 0;
+            for (int offset = 0; offset < CHUNK_SIZE; offset++) {
+                int key = chunk * CHUNK_SIZE + offset;
+                for (int d = 0; d < distinctPlaintexts; d++) {
+                    encrypted[distinct[d]] = SDES.encrypt(distinct[d], key);
+                }
+                for (int job = 0; job < jobCount; job++) {
+                    int p = jobStart[job];
+                    int end = jobStart[job + 1];
+                    while (p < end && encrypted[pairPlaintexts[p]] == pairCiphertexts[p]) {
+                        p++;
+                    }
+                    pairsTested += p - jobStart[job] + (p < end ? 1 : 0);
+                    if (p == end) {
+                        words[job] |= 1L << offset;
+                    }
+                }
+            }
+            // 每组只写各任务候选集合中自己的位图字，无需加锁
+            for (int job = 0; job < jobCount; job++) {
+                results[job].setWord(chunk, words[job]);
+            }
+            if (telemetry != null) {
+                telemetry.addCompleted(CHUNK_SIZE);
+                telemetry.addPairsTested(pairsTested);
+            }
+        });
+
+        return results;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * 容错的密钥排名
+ * 明密文对中存在传输错误时，没有密钥能满足全部明密文对。这里改为统计每个密钥满足的明密文对数：
+ * 每对明密文用位切片一次得到64个密钥的匹配位图，再用按位的纵向计数器（每个计数位平面一个long）
+ * 把位图逐对累加，一遍即可得到全部1024个密钥的匹配数
+ */
+public class NoisyPairRanker {
+
+    private static final int WORD_COUNT = SDESCodebook.KEY_COUNT / BitslicedSDES.LANES;
+
+    private NoisyPairRanker() {
+    }
+
+    /**
+     * 排名结果
+     */
+    public static class RankedKey {
+        public final int key;
+        // 满足的明密文对数
+        public final int matches;
+        public final int pairCount;
+        // 该密钥为真实密钥的后验概率
+        public final double confidence;
+
+        RankedKey(int key, int matches, int pairCount, double confidence) {
+            this.key = key;
+            this.matches = matches;
+            this.pairCount = pairCount;
+            this.confidence = confidence;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s (匹配: %d/%d, 置信度: %.1f%%)",
+                    Utils.intToBinaryString(key, 10), matches, pairCount, confidence * 100);
+        }
+    }
+
+    /**
+     * 统计每个密钥满足的明密文对数
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，与明文一一对应，负数表示无效的明密文对
+     * @return 长度为1024的数组，下标为密钥
+     */
+    public static int[] countMatches(int[] plaintexts, int[] ciphertexts) {
+        if (plaintexts.length != ciphertexts.length) {
+            throw new IllegalArgumentException("明文数与密文数不一致");
+        }
+        int pairCount = plaintexts.length;
+        // 计数器的位数，足以表示pairCount
+        int planes = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(pairCount));
+        int[] counts = new int[SDESCodebook.KEY_COUNT];
+
+        IntStream.range(0, WORD_COUNT).parallel().forEach(word -> {
+            int keyBase = word * BitslicedSDES.LANES;
+            long[] counter = new long[planes];
+            for (int p = 0; p < pairCount; p++) {
+                if (ciphertexts[p] < 0) {
+                    continue;
+                }
+                // 64路并行的逐位进位加法
+                long carry = BitslicedSDES.matchKeys(plaintexts[p], ciphertexts[p], keyBase);
+                for (int plane = 0; plane < planes && carry != 0L; plane++) {
+                    long next = counter[plane] & carry;
+                    counter[plane] ^= carry;
+                    carry = next;
+                }
+            }
+            for (int lane = 0; lane < BitslicedSDES.LANES; lane++) {
+                int count = 0;
+                for (int plane = 0; plane < planes; plane++) {
+                    count |= (int) ((counter[plane] >>> lane) & 1L) << plane;
+                }
+                counts[keyBase + lane] = count;
+            }
+        });
+
+        return counts;
+    }
+
+    /**
+     * 按满足的明密文对数给密钥排名
+     * 置信度的模型：真实密钥下每对明密文以未知的错误率e出错，出错后的密文在256个值中均匀分布；
+     * e取最高匹配数对应的估计值，各密钥先验相同
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，与明文一一对应，负数表示无效的明密文对
+     * @param topK 返回的密钥数
+     * @return 按匹配数从高到低排列的密钥，匹配数相同时按密钥从小到大
+     */
+    public static List<RankedKey> rank(int[] plaintexts, int[] ciphertexts, int topK) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("返回的密钥数必须大于0");
+        }
+        int pairCount = plaintexts.length;
+        int[] counts = countMatches(plaintexts, ciphertexts);
+
+        // 大小为topK的小顶堆，堆顶是当前入选的最差密钥
+        Comparator<Integer> worstFirst = Comparator.<Integer>comparingInt(key -> counts[key])
+                .thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Integer> heap = new PriorityQueue<>(topK + 1, worstFirst);
+        for (int key = 0; key < SDESCodebook.KEY_COUNT; key++) {
+            heap.add(key);
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        }
+
+        double[] posterior = posterior(counts, pairCount);
+        List<RankedKey> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int key = heap.poll();
+            result.add(new RankedKey(key, counts[key], pairCount, posterior[key]));
+        }
+        result.sort(Comparator.comparingInt((RankedKey r) -> -r.matches).thenComparingInt(r -> r.key));
+        return result;
+    }
+
+    /**
+     * 各密钥为真实密钥的后验概率
+     */
+    private static double[] posterior(int[] counts, int pairCount) {
+        double[] result = new double[counts.length];
+        if (pairCount == 0) {
+            Arrays.fill(result, 1.0 / counts.length);
+            return result;
+        }
+        int best = 0;
+        for (int count : counts) {
+            best = Math.max(best, count);
+        }
+        double errorRate = Math.min(Math.max(1.0 - (double) best / pairCount, 0.5 / pairCount), 0.99);
+        double logMatch = Math.log(1.0 - errorRate + errorRate / SDESCodebook.BLOCK_COUNT);
+        double logMismatch = Math.log(errorRate / SDESCodebook.BLOCK_COUNT);
+
+        double maxLog = Double.NEGATIVE_INFINITY;
+        double[] logLikelihood = new double[counts.length];
+        for (int key = 0; key < counts.length; key++) {
+            logLikelihood[key] = counts[key] * logMatch + (pairCount - counts[key]) * logMismatch;
+            maxLog = Math.max(maxLog, logLikelihood[key]);
+        }
+        double total = 0;
+        for (int key = 0; key < counts.length; key++) {
+            result[key] = Math.exp(logLikelihood[key] - maxLog);
+            total += result[key];
+        }
+        for (int key = 0; key < counts.length; key++) {
+            result[key] /= total;
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 明密文对到密钥的倒排索引
+ * S-DES只有65536种(明文, 密文)组合，每种组合的匹配密钥是一个1024位的位图，全部索引共8 MB。
+ * 索引预先构建并写入文件，启动时以只读方式映射到内存，之后任意破解查询只需读取几个位图并求交
+ *
+ * 文件格式（小端序）：
+ *   0  8字节魔数 "SDESIDX1"
+ *   8  int 版本号
+ *   12 int 明密文组合数 (65536)
+ *   16 int 每个组合的位图字数 (16)
+ *   20 12字节保留
+ *   32 位图数据，下标为 ((明文 << 8) | 密文) * 16 + 字
+ */
+public class PairKeyIndex {
+
+    // 明密文组合数 (2^16)
+    public static final int PAIR_COUNT = SDESCodebook.BLOCK_COUNT * SDESCodebook.BLOCK_COUNT;
+
+    private static final byte[] MAGIC = {'S', 'D', 'E', 'S', 'I', 'D', 'X', '1'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int WORDS = KeyCandidateSet.WORDS;
+    private static final long DATA_SIZE = (long) PAIR_COUNT * WORDS * Long.BYTES;
+
+    private final LongBuffer bitmaps;
+
+    private PairKeyIndex(LongBuffer bitmaps) {
+        this.bitmaps = bitmaps;
+    }
+
+    /**
+     * 在内存中构建索引
+     * 按64个密钥一组并行，每组只写各位图中自己的那个字，无需加锁
+     * @return 由堆内存支持的索引
+     */
+    public static PairKeyIndex build() {
+        long[] data = new long[PAIR_COUNT * WORDS];
+        IntStream.range(0, WORDS).parallel().forEach(word -> {
+            for (int offset = 0; offset < Long.SIZE; offset++) {
+                int key = word * Long.SIZE + offset;
+                for (int plaintext = 0; plaintext < SDESCodebook.BLOCK_COUNT; plaintext++) {
+                    int ciphertext = SDES.encrypt(plaintext, key);
+                    data[((plaintext << 8) | ciphertext) * WORDS + word] |= 1L << offset;
+                }
+            }
+        });
+        return new PairKeyIndex(LongBuffer.wrap(data));
+    }
+
+    /**
+     * 把索引写入文件，先写临时文件再原子替换，避免读到写了一半的索引
+     * @param file 索引文件
+     * @throws IOException 写入失败
+     */
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.put(MAGIC).putInt(VERSION).putInt(PAIR_COUNT).putInt(WORDS);
+                header.clear();
+                writeFully(channel, header);
+
+                ByteBuffer chunk = ByteBuffer.allocate(WORDS * Long.BYTES * SDESCodebook.BLOCK_COUNT)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                LongBuffer longs = chunk.asLongBuffer();
+                for (int start = 0; start < PAIR_COUNT * WORDS; start += longs.capacity()) {
+                    longs.clear();
+                    for (int i = 0; i < longs.capacity(); i++) {
+                        longs.put(bitmaps.get(start + i));
+                    }
+                    chunk.clear();
+                    writeFully(channel, chunk);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 以只读方式映射索引文件
+     * @param file 索引文件
+     * @return 由映射内存支持的索引
+     * @throws IOException 读取失败或文件格式不正确
+     */
+    public static PairKeyIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_SIZE + DATA_SIZE) {
+                throw new IOException("索引文件大小不正确: " + file);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // 读满文件头
+            }
+            header.flip();
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || header.getInt() != VERSION
+                    || header.getInt() != PAIR_COUNT || header.getInt() != WORDS) {
+                throw new IOException("不是有效的S-DES索引文件: " + file);
+            }
+            // 映射在通道关闭后仍然有效
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, DATA_SIZE);
+            return new PairKeyIndex(data.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+        }
+    }
+
+    /**
+     * 映射已有的索引文件，文件不存在时先构建并写入
+     * @param file 索引文件
+     * @return 由映射内存支持的索引
+     * @throws IOException 读写失败或文件格式不正确
+     */
+    public static PairKeyIndex openOrBuild(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            build().write(file);
+        }
+        return open(file);
+    }
+
+    /**
+     * 读取一对明密文的匹配密钥位图中的一个字
+     * @param plaintext 8位明文
+     * @param ciphertext 8位密文
+     * @param word 位图字下标，对应密钥 word*64 到 word*64+63
+     */
+    public long word(int plaintext, int ciphertext, int word) {
+        return bitmaps.get((((plaintext & 0xFF) << 8) | (ciphertext & 0xFF)) * WORDS + word);
+    }
+
+    /**
+     * 一对明密文的匹配密钥
+     */
+    public KeyCandidateSet lookup(int plaintext, int ciphertext) {
+        long[] bitmap = new long[WORDS];
+        bitmaps.get((((plaintext & 0xFF) << 8) | (ciphertext & 0xFF)) * WORDS, bitmap);
+        return KeyCandidateSet.fromBitmap(bitmap);
+    }
+
+    /**
+     * 满足全部明密文对的密钥
+     * @param plaintexts 8位明文数组
+     * @param ciphertexts 8位密文数组，与明文一一对应，负数表示无效的明密文对
+     * @return 候选密钥集合
+     */
+    public KeyCandidateSet query(int[] plaintexts, int[] ciphertexts) {
+        KeyCandidateSet result = KeyCandidateSet.none();
+        for (int word = 0; word < WORDS; word++) {
+            long matches = -1L;
+            for (int p = 0; p < plaintexts.length && matches != 0L; p++) {
+                matches &= ciphertexts[p] < 0 ? 0L : word(plaintexts[p], ciphertexts[p], word);
+            }
+            result.setWord(word, matches);
+        }
+        return result;
+    }
+}
\ No newline at end of file
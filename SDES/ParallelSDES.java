@@ -0,0 +1,142 @@
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 大缓冲区的并行S-DES加解密
+ * ECB和CTR模式下各数据块互不依赖，可以把缓冲区切分成适合缓存的小块交给ForkJoinPool并行处理。
+ * 数据量低于阈值时直接在调用线程中处理
+ */
+public class ParallelSDES {
+
+    // 低于该字节数时不拆分任务
+    public static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    // 每个子任务处理的字节数，与L2缓存大小相当
+    public static final int CHUNK_SIZE = 256 * 1024;
+
+    private ParallelSDES() {
+    }
+
+    /**
+     * ECB模式并行加密
+     * @param in 明文数组
+     * @param inOff 明文起始位置
+     * @param len 字节数
+     * @param out 密文数组，可以与明文数组相同
+     * @param outOff 密文起始位置
+     * @param key 10位密钥
+     */
+    public static void encryptECB(byte[] in, int inOff, int len, byte[] out, int outOff, int key) {
+        run(ByteBuffer.wrap(in, inOff, len), ByteBuffer.wrap(out, outOff, len), SDES.encryptTable(key), false, 0);
+    }
+
+    /**
+     * ECB模式并行解密
+     */
+    public static void decryptECB(byte[] in, int inOff, int len, byte[] out, int outOff, int key) {
+        run(ByteBuffer.wrap(in, inOff, len), ByteBuffer.wrap(out, outOff, len), SDES.decryptTable(key), false, 0);
+    }
+
+    /**
+     * CTR模式并行加解密，结果与SDESCipher的CTR模式一致
+     * @param iv 8位计数器初值
+     * @param position 输入第一个字节在整条消息中的偏移
+     */
+    public static void cryptCTR(byte[] in, int inOff, int len, byte[] out, int outOff,
+                                int key, int iv, long position) {
+        run(ByteBuffer.wrap(in, inOff, len), ByteBuffer.wrap(out, outOff, len), SDESCipher.keyStream(key, iv), true, position);
+    }
+
+    /**
+     * ECB模式并行加密缓冲区中的剩余数据，处理后两个缓冲区的位置均向后移动
+     */
+    public static void encryptECB(ByteBuffer in, ByteBuffer out, int key) {
+        process(in, out, SDES.encryptTable(key), false, 0);
+    }
+
+    /**
+     * ECB模式并行解密缓冲区中的剩余数据
+     */
+    public static void decryptECB(ByteBuffer in, ByteBuffer out, int key) {
+        process(in, out, SDES.decryptTable(key), false, 0);
+    }
+
+    /**
+     * CTR模式并行加解密缓冲区中的剩余数据
+     * @param iv 8位计数器初值
+     * @param position 输入第一个字节在整条消息中的偏移
+     */
+    public static void cryptCTR(ByteBuffer in, ByteBuffer out, int key, int iv, long position) {
+        process(in, out, SDESCipher.keyStream(key, iv), true, position);
+    }
+
+    private static void process(ByteBuffer in, ByteBuffer out, byte[] table, boolean ctr, long position) {
+        int len = in.remaining();
+        if (out.remaining() < len) {
+            throw new IllegalArgumentException("输出缓冲区空间不足");
+        }
+        run(in.duplicate(), out.duplicate(), table, ctr, position);
+        in.position(in.position() + len);
+        out.position(out.position() + len);
+    }
+
+    private static void run(ByteBuffer in, ByteBuffer out, byte[] table, boolean ctr, long position) {
+        ChunkTask task = new ChunkTask(in, out, in.position(), out.position(), 0, in.remaining(), table, ctr, position);
+        if (in.remaining() < PARALLEL_THRESHOLD) {
+            // 整个区间在调用线程中一次处理，不经过会拆分任务的compute
+            task.processChunk();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+    }
+
+    /**
+     * 处理[from, to)区间的子任务，区间过大时对半拆分
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer in;
+        private final ByteBuffer out;
+        private final int inBase;
+        private final int outBase;
+        private final int from;
+        private final int to;
+        private final byte[] table;
+        private final boolean ctr;
+        private final long position;
+
+        ChunkTask(ByteBuffer in, ByteBuffer out, int inBase, int outBase, int from, int to,
+                  byte[] table, boolean ctr, long position) {
+            this.in = in;
+            this.out = out;
+            this.inBase = inBase;
+            this.outBase = outBase;
+            this.from = from;
+            this.to = to;
+            this.table = table;
+            this.ctr = ctr;
+            this.position = position;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                processChunk();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(in, out, inBase, outBase, from, mid, table, ctr, position),
+                      new ChunkTask(in, out, inBase, outBase, mid, to, table, ctr, position));
+        }
+
+        private void processChunk() {
+            if (ctr) {
+                SDESCipher.applyKeyStream(in, inBase + from, to - from, out, outBase + from, table, position + from);
+            } else {
+                SDESBatch.substitute(in, inBase + from, to - from, out, outBase + from, table);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -22,6 +22,19 @@ public class Permutation {
     // P10置换表 - 用于初始密钥处理
     public static final int[] P10 = {3, 5, 2, 7, 4, 10, 1, 9, 8, 6};
     
+    // 初始置换查找表，下标为8位输入，值为置换后的8位输出
+    private static final byte[] IP_TABLE = new byte[256];
+    
+    // 逆初始置换查找表
+    private static final byte[] IP_INV_TABLE = new byte[256];
+    
+    static {
+        for (int i = 0; i < 256; i++) {
+            IP_TABLE[i] = (byte) permute(i, IP, 8);
+            IP_INV_TABLE[i] = (byte) permute(i, IP_INV, 8);
+        }
+    }
+    
     /**
      * 通用置换函数
      * @param input 输入位数组
@@ -63,4 +76,47 @@ public class Permutation {
     public static int[] expansionPermutation(int[] input) {
         return permute(input, EP);
     }
+    
+    /**
+     * 通用置换函数（位打包版本，不分配数组）
+     * 输入和输出的第1位均为最高位
+     * @param input 打包后的输入位
+     * @param table 置换表
+     * @param inputBits 输入位数
+     * @return 打包后的置换结果，位数等于置换表长度
+     */
+    public static int permute(int input, int[] table, int inputBits) {
+        int output = 0;
+        for (int position : table) {
+            output = (output << 1) | ((input >>> (inputBits - position)) & 1);
+        }
+        return output;
+    }
+    
+    /**
+     * 执行初始置换（位打包版本，查表实现）
+     * @param input 8位输入，仅使用低8位
+     * @return 置换后的8位输出
+     */
+    public static int initialPermutation(int input) {
+        return IP_TABLE[input & 0xFF] & 0xFF;
+    }
+    
+    /**
+     * 执行逆初始置换（位打包版本，查表实现）
+     * @param input 8位输入，仅使用低8位
+     * @return 置换后的8位输出
+     */
+    public static int inverseInitialPermutation(int input) {
+        return IP_INV_TABLE[input & 0xFF] & 0xFF;
+    }
+    
+    /**
+     * 执行扩展置换（位打包版本）
+     * @param input 4位输入
+     * @return 扩展后的8位输出
+     */
+    public static int expansionPermutation(int input) {
+        return permute(input, EP, 4);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,403 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 选择明文攻击的彩虹表（时间-存储折中）
+ * 对固定的选择明文，以"用密钥加密选择明文"为步进函数、以按列变化的归约函数把密文映射回密钥，
+ * 预先计算若干条密钥链，只保存每条链的起点和终点。查询时从密文出发向后推算终点，
+ * 命中后从起点重建链即可找到密钥，所需加密次数约为 表数 × 链长^2 / 2，远少于穷举整个密钥空间
+ *
+ * 选择明文的字节数为 ceil(密钥位数 / 8)，密文按ECB方式逐字节加密后拼接（先加密的字节在高位），
+ * 使密文的位数不少于密钥位数
+ *
+ * 文件格式（小端序）：
+ *   0  8字节魔数 "SDESRBT1"
+ *   8  int 版本号
+ *   12 int 变体序号 (SDESVariant.ordinal)
+ *   16 int 选择明文（先加密的字节在高位）
+ *   20 int 链长
+ *   24 int 表数
+ *   28 4字节保留
+ *   32 int数组，各表的链数，补齐到8字节
+ *   之后 long数组，各表的链依次存放，每条链为 (终点 << 32) | 起点，表内按终点从小到大排列
+ */
+public class RainbowTable {
+
+    // 默认的表数
+    public static final int DEFAULT_TABLE_COUNT = 8;
+
+    private static final byte[] MAGIC = {'S', 'D', 'E', 'S', 'R', 'B', 'T', '1'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    // 估计有效空间时抽取的密钥数
+    private static final int ESTIMATE_SAMPLES = 1 << 20;
+
+    private final SDESVariant variant;
+    private final byte[] plaintext;
+    private final int chainLength;
+    private final int keyMask;
+
+    // 第t张表的链位于 [offsets[t], offsets[t + 1])
+    private final int[] offsets;
+    private final LongBuffer chains;
+
+    private RainbowTable(SDESVariant variant, byte[] plaintext, int chainLength, int[] offsets, LongBuffer chains) {
+        this.variant = variant;
+        this.plaintext = plaintext;
+        this.chainLength = chainLength;
+        this.keyMask = variant.keyCount() - 1;
+        this.offsets = offsets;
+        this.chains = chains;
+    }
+
+    /**
+     * 选择明文的字节数
+     */
+    public static int blockBytes(SDESVariant variant) {
+        return (variant.keyBits() + 7) / 8;
+    }
+
+    /**
+     * 用默认参数构建
+     * 链上除起点外的密钥都由密文归约而来，有效空间是选择明文可能的密文数，多重加密时往往远小于密钥数。
+     * 先估计这个数N，再取链长约为N的立方根的两倍、每张表的起点数为 N × 2 / 链长
+     * @see #build(SDESVariant, byte[], int, int, int)
+     */
+    public static RainbowTable build(SDESVariant variant, byte[] plaintext) {
+        long space = new RainbowTable(variant, plaintext.clone(), 1, new int[]{0}, null).estimateCiphertextCount();
+        int bits = 64 - Long.numberOfLeadingZeros(space - 1);
+        int chainLength = 1 << (bits / 3 + 1);
+        int chainsPerTable = (int) Math.max(1, Math.min(variant.keyCount(), 2 * space / chainLength));
+        return build(variant, plaintext, chainLength, chainsPerTable, DEFAULT_TABLE_COUNT);
+    }
+
+    /**
+     * 估计选择明文在全部密钥下的不同密文数
+     * 密钥不超过2^20个时逐个计算；否则随机抽取2^20个密钥，由不同密文的个数D按 D = N(1 - e^(-S/N)) 反推N
+     */
+    private long estimateCiphertextCount() {
+        SDESCodebook.preload();
+        int samples = Math.min(variant.keyCount(), ESTIMATE_SAMPLES);
+        boolean exhaustive = samples == variant.keyCount();
+        // 抽样时借用归约函数把序号打散为随机密钥，表号-1不会与任何表的归约函数重合
+        int[] ciphertexts = IntStream.range(0, samples).parallel()
+                .map(i -> chosenCiphertext(exhaustive ? i : reduce(i, 0, -1)))
+                .sorted().toArray();
+        long distinct = 1;
+        for (int i = 1; i < ciphertexts.length; i++) {
+            if (ciphertexts[i] != ciphertexts[i - 1]) {
+                distinct++;
+            }
+        }
+        if (exhaustive) {
+            return distinct;
+        }
+        // D/N 随N单调递减，二分求解
+        long low = distinct;
+        long high = 1L << 32;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (mid * -Math.expm1(-(double) samples / mid) < distinct) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 在内存中构建彩虹表
+     * 每张表的链并行生成，按终点排序后只保留终点相同的链中的一条
+     * @param variant 加密变体
+     * @param plaintext 选择明文，长度为blockBytes(variant)
+     * @param chainLength 链长，每条链包含的密钥数
+     * @param chainsPerTable 每张表的起点数，起点为 0 到 chainsPerTable-1 的密钥
+     * @param tableCount 表数，各表使用不同的归约函数
+     * @return 由堆内存支持的彩虹表
+     */
+    public static RainbowTable build(SDESVariant variant, byte[] plaintext, int chainLength, int chainsPerTable,
+                                     int tableCount) {
+        if (plaintext.length != blockBytes(variant)) {
+            throw new IllegalArgumentException(variant + "的选择明文必须是" + blockBytes(variant) + "字节");
+        }
+        if (chainLength <= 0 || tableCount <= 0 || (long) chainLength * tableCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("链长和表数必须大于0");
+        }
+        if (chainsPerTable <= 0 || chainsPerTable > variant.keyCount()) {
+            throw new IllegalArgumentException("每张表的链数必须在1到" + variant.keyCount() + "之间");
+        }
+        SDESCodebook.preload();
+
+        RainbowTable generator = new RainbowTable(variant, plaintext.clone(), chainLength, new int[]{0}, null);
+        long[][] tables = new long[tableCount][];
+        for (int table = 0; table < tableCount; table++) {
+            final int t = table;
+            long[] built = new long[chainsPerTable];
+            IntStream.range(0, chainsPerTable).parallel().forEach(start -> {
+                int key = start;
+                for (int column = 0; column < chainLength; column++) {
+                    key = generator.reduce(generator.chosenCiphertext(key), column, t);
+                }
+                built[start] = (long) key << 32 | start;
+            });
+            Arrays.parallelSort(built);
+
+            int count = 0;
+            for (long chain : built) {
+                if (count == 0 || (chain >>> 32) != (built[count - 1] >>> 32)) {
+                    built[count++] = chain;
+                }
+            }
+            tables[table] = Arrays.copyOf(built, count);
+        }
+
+        int[] offsets = new int[tableCount + 1];
+        for (int table = 0; table < tableCount; table++) {
+            offsets[table + 1] = offsets[table] + tables[table].length;
+        }
+        long[] data = new long[offsets[tableCount]];
+        for (int table = 0; table < tableCount; table++) {
+            System.arraycopy(tables[table], 0, data, offsets[table], tables[table].length);
+        }
+        return new RainbowTable(variant, generator.plaintext, chainLength, offsets, LongBuffer.wrap(data));
+    }
+
+    /**
+     * 把彩虹表写入文件，先写临时文件再原子替换
+     * @param file 彩虹表文件
+     * @throws IOException 写入失败
+     */
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                int tableCount = getTableCount();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + countsSize(tableCount))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                header.put(MAGIC).putInt(VERSION).putInt(variant.ordinal()).putInt(packPlaintext())
+                        .putInt(chainLength).putInt(tableCount).putInt(0);
+                for (int table = 0; table < tableCount; table++) {
+                    header.putInt(offsets[table + 1] - offsets[table]);
+                }
+                header.clear();
+                writeFully(channel, header);
+
+                ByteBuffer chunk = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+                LongBuffer longs = chunk.asLongBuffer();
+                int total = getChainCount();
+                for (int start = 0; start < total; start += longs.capacity()) {
+                    int length = Math.min(longs.capacity(), total - start);
+                    longs.clear();
+                    for (int i = 0; i < length; i++) {
+                        longs.put(chains.get(start + i));
+                    }
+                    chunk.clear().limit(length * Long.BYTES);
+                    writeFully(channel, chunk);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // 各表链数所占的字节数，补齐到8字节使链数据按long对齐
+    private static int countsSize(int tableCount) {
+        return (tableCount * Integer.BYTES + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+    }
+
+    /**
+     * 以只读方式映射彩虹表文件
+     * @param file 彩虹表文件
+     * @return 由映射内存支持的彩虹表
+     * @throws IOException 读取失败或文件格式不正确
+     */
+    public static RainbowTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE, file);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            int version = header.getInt();
+            int ordinal = header.getInt();
+            int packed = header.getInt();
+            int chainLength = header.getInt();
+            int tableCount = header.getInt();
+            if (!Arrays.equals(magic, MAGIC) || version != VERSION || ordinal < 0
+                    || ordinal >= SDESVariant.values().length || chainLength <= 0 || tableCount <= 0) {
+                throw new IOException("不是有效的S-DES彩虹表文件: " + file);
+            }
+            SDESVariant variant = SDESVariant.values()[ordinal];
+            byte[] plaintext = new byte[blockBytes(variant)];
+            for (int i = 0; i < plaintext.length; i++) {
+                plaintext[i] = (byte) (packed >>> (8 * (plaintext.length - 1 - i)));
+            }
+
+            ByteBuffer counts = readFully(channel, HEADER_SIZE, countsSize(tableCount), file);
+            int[] offsets = new int[tableCount + 1];
+            for (int table = 0; table < tableCount; table++) {
+                offsets[table + 1] = offsets[table] + counts.getInt();
+            }
+            long dataOffset = HEADER_SIZE + countsSize(tableCount);
+            long dataSize = (long) offsets[tableCount] * Long.BYTES;
+            if (channel.size() != dataOffset + dataSize) {
+                throw new IOException("彩虹表文件大小不正确: " + file);
+            }
+            // 映射在通道关闭后仍然有效
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, dataSize);
+            return new RainbowTable(variant, plaintext, chainLength, offsets,
+                    data.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int size, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("彩虹表文件不完整: " + file);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 映射已有的彩虹表文件，文件不存在时先用给定参数构建并写入
+     * @return 由映射内存支持的彩虹表
+     * @throws IOException 读写失败或文件格式不正确
+     */
+    public static RainbowTable openOrBuild(Path file, SDESVariant variant, byte[] plaintext, int chainLength,
+                                           int chainsPerTable, int tableCount) throws IOException {
+        if (!Files.exists(file)) {
+            build(variant, plaintext, chainLength, chainsPerTable, tableCount).write(file);
+        }
+        return open(file);
+    }
+
+    /**
+     * 用组合密钥加密选择明文，即链的步进函数
+     * @param key 组合密钥
+     * @return 各字节密文拼接成的整数，先加密的字节在高位
+     */
+    public int chosenCiphertext(int key) {
+        int ciphertext = 0;
+        for (byte block : plaintext) {
+            ciphertext = ciphertext << 8 | variant.encrypt(block & 0xFF, key);
+        }
+        return ciphertext;
+    }
+
+    /**
+     * 归约函数，把密文映射为密钥，每张表的每一列各不相同
+     * 使用MurmurHash3的64位混合函数打散密文与列号
+     */
+    private int reduce(int ciphertext, int column, int table) {
+        long h = (ciphertext & 0xFFFFFFFFL) | (long) (table * chainLength + column) << 32;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (h ^ (h >>> 33)) & keyMask;
+    }
+
+    /**
+     * 由选择明文的密文恢复密钥
+     * 按位置从链尾向链头尝试，所有表的同一位置一起尝试，先尝试推算代价小的位置
+     * @param ciphertext 选择明文的密文，先加密的字节在高位
+     * @return 加密选择明文得到该密文的一个组合密钥，表中没有覆盖时为-1
+     */
+    public int lookup(int ciphertext) {
+        int tableCount = getTableCount();
+        for (int column = chainLength - 1; column >= 0; column--) {
+            for (int table = 0; table < tableCount; table++) {
+                int end = reduce(ciphertext, column, table);
+                for (int next = column + 1; next < chainLength; next++) {
+                    end = reduce(chosenCiphertext(end), next, table);
+                }
+                int start = findStart(table, end);
+                if (start < 0) {
+                    continue;
+                }
+                // 从起点重建链，终点相同但该位置的密钥不匹配时是误报
+                int key = start;
+                for (int previous = 0; previous < column; previous++) {
+                    key = reduce(chosenCiphertext(key), previous, table);
+                }
+                if (chosenCiphertext(key) == ciphertext) {
+                    return key;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 在一张表中二分查找终点
+     * @return 链的起点，没有该终点时为-1
+     */
+    private int findStart(int table, int end) {
+        int low = offsets[table];
+        int high = offsets[table + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long chain = chains.get(mid);
+            int midEnd = (int) (chain >>> 32);
+            if (midEnd < end) {
+                low = mid + 1;
+            } else if (midEnd > end) {
+                high = mid - 1;
+            } else {
+                return (int) chain;
+            }
+        }
+        return -1;
+    }
+
+    private int packPlaintext() {
+        int packed = 0;
+        for (byte block : plaintext) {
+            packed = packed << 8 | (block & 0xFF);
+        }
+        return packed;
+    }
+
+    public SDESVariant getVariant() {
+        return variant;
+    }
+
+    public byte[] getChosenPlaintext() {
+        return plaintext.clone();
+    }
+
+    public int getChainLength() {
+        return chainLength;
+    }
+
+    public int getTableCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * 去掉终点重复的链后，全部表的链数
+     */
+    public int getChainCount() {
+        return offsets[offsets.length - 1];
+    }
+}
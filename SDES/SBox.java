@@ -79,4 +79,31 @@ public class SBox {
         
         return output;
     }
+    
+    /**
+     * S盒替换函数（位打包版本，不分配数组）
+     * @param input 8位输入，高4位进入S0，低4位进入S1
+     * @return 4位输出，高2位为S0输出，低2位为S1输出
+     */
+    public static int sBoxSubstitution(int input) {
+        int s0Output = sBoxLookup((input >>> 4) & 0xF, S0);
+        int s1Output = sBoxLookup(input & 0xF, S1);
+        return (s0Output << 2) | s1Output;
+    }
+    
+    /**
+     * 单个S盒查找（位打包版本）
+     * @param input 4位输入，最高位为第1位
+     * @param sBox 使用的S盒
+     * @return 2位输出
+     */
+    private static int sBoxLookup(int input, int[][] sBox) {
+        // 行号由第1位和第4位决定
+        int row = ((input >>> 2) & 2) | (input & 1);
+        
+        // 列号由第2位和第3位决定
+        int col = (input >>> 1) & 3;
+        
+        return sBox[row][col];
+    }
 }
\ No newline at end of file
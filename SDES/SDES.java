@@ -1,9 +1,23 @@
+import java.nio.ByteBuffer;
+
 /**
  * S-DES核心算法类
  * 实现加密和解密功能
  */
 public class SDES {
     
+    // 融合轮函数表，下标为 (8位子密钥 << 4) | 4位右半部分，值为F函数的4位输出
+    // 每个子密钥16项，将扩展置换、子密钥异或、S盒和P4合并为一次查表
+    private static final byte[] F_TABLE = new byte[256 * 16];
+    
+    static {
+        for (int subKey = 0; subKey < 256; subKey++) {
+            for (int right = 0; right < 16; right++) {
+                F_TABLE[(subKey << 4) | right] = (byte) computeFFunction(right, subKey);
+            }
+        }
+    }
+    
     /**
      * F函数 - S-DES的核心轮函数
      * @param right 4位右半部分
@@ -92,6 +106,78 @@ public class SDES {
         return Permutation.inverseInitialPermutation(Utils.mergeArrays(left2, right2));
     }
     
+    /**
+     * F函数（位打包版本，查融合轮函数表）
+     * @param right 4位右半部分，仅使用低4位
+     * @param subKey 8位子密钥，仅使用低8位
+     * @return 4位输出
+     */
+    public static int fFunction(int right, int subKey) {
+        return F_TABLE[((subKey & 0xFF) << 4) | (right & 0xF)];
+    }
+    
+    /**
+     * 逐步计算F函数（位打包版本），用于构建融合轮函数表
+     * @param right 4位右半部分
+     * @param subKey 8位子密钥
+     * @return 4位输出
+     */
+    private static int computeFFunction(int right, int subKey) {
+        // 步骤1: 扩展置换 (4位 -> 8位)，步骤2: 与子密钥异或
+        int afterXor = Permutation.expansionPermutation(right) ^ subKey;
+        
+        // 步骤3: S盒替换 (8位 -> 4位)
+        int afterSBox = SBox.sBoxSubstitution(afterXor);
+        
+        // 步骤4: P4置换
+        return Permutation.permute(afterSBox, Permutation.P4, 4);
+    }
+    
+    /**
+     * 两轮Feistel结构（位打包版本）
+     * @param block 8位输入
+     * @param firstKey 第一轮子密钥
+     * @param secondKey 第二轮子密钥
+     * @return 8位输出
+     */
+    private static int rounds(int block, int firstKey, int secondKey) {
+        // 初始置换并分割为左右各4位
+        int afterIP = Permutation.initialPermutation(block);
+        int left = afterIP >>> 4;
+        int right = afterIP & 0xF;
+        
+        // 第一轮: 左右交换
+        int right1 = left ^ fFunction(right, firstKey);
+        
+        // 第二轮: 不交换
+        int left2 = right ^ fFunction(right1, secondKey);
+        
+        // 最终置换
+        return Permutation.inverseInitialPermutation((left2 << 4) | right1);
+    }
+    
+    /**
+     * 加密单个8位数据块（位打包版本，不分配数组）
+     * @param plaintext 8位明文，第1位为最高位，仅使用低8位
+     * @param key 10位密钥，第1位为最高位，仅使用低10位
+     * @return 8位密文
+     */
+    public static int encrypt(int plaintext, int key) {
+        int subKeys = KeyGenerator.getSubKeys(key);
+        return rounds(plaintext & 0xFF, subKeys >>> 8, subKeys & 0xFF);
+    }
+    
+    /**
+     * 解密单个8位数据块（位打包版本，不分配数组）
+     * @param ciphertext 8位密文，第1位为最高位，仅使用低8位
+     * @param key 10位密钥，第1位为最高位，仅使用低10位
+     * @return 8位明文
+     */
+    public static int decrypt(int ciphertext, int key) {
+        int subKeys = KeyGenerator.getSubKeys(key);
+        return rounds(ciphertext & 0xFF, subKeys & 0xFF, subKeys >>> 8);
+    }
+    
     /**
      * 加密字符串（多数据块）
      * @param plaintext 明文二进制字符串
@@ -103,11 +189,8 @@ public class SDES {
             throw new IllegalArgumentException("输入必须是有效的二进制字符串");
         }
         
-        int[] plaintextBits = Utils.binaryStringToArray(plaintext);
-        int[] keyBits = Utils.binaryStringToArray(key);
-        
-        int[] ciphertextBits = encrypt(plaintextBits, keyBits);
-        return Utils.arrayToBinaryString(ciphertextBits);
+        int ciphertext = encrypt(Utils.binaryStringToInt(plaintext), Utils.binaryStringToInt(key));
+        return Utils.intToBinaryString(ciphertext, 8);
     }
     
     /**
@@ -121,10 +204,79 @@ public class SDES {
             throw new IllegalArgumentException("输入必须是有效的二进制字符串");
         }
         
-        int[] ciphertextBits = Utils.binaryStringToArray(ciphertext);
-        int[] keyBits = Utils.binaryStringToArray(key);
-        
-        int[] plaintextBits = decrypt(ciphertextBits, keyBits);
-        return Utils.arrayToBinaryString(plaintextBits);
+        int plaintext = decrypt(Utils.binaryStringToInt(ciphertext), Utils.binaryStringToInt(key));
+        return Utils.intToBinaryString(plaintext, 8);
+    }
+    
+    /**
+     * 生成某个密钥的加密查找表
+     * @param key 10位密钥
+     * @return 256项数组，下标为明文，值为密文
+     */
+    public static byte[] encryptTable(int key) {
+        byte[] table = new byte[256];
+        for (int block = 0; block < 256; block++) {
+            table[block] = (byte) encrypt(block, key);
+        }
+        return table;
+    }
+    
+    /**
+     * 生成某个密钥的解密查找表
+     * @param key 10位密钥
+     * @return 256项数组，下标为密文，值为明文
+     */
+    public static byte[] decryptTable(int key) {
+        byte[] table = new byte[256];
+        for (int block = 0; block < 256; block++) {
+            table[block] = (byte) decrypt(block, key);
+        }
+        return table;
+    }
+    
+    /**
+     * 批量加密字节数组 (ECB模式，每个字节为一个数据块)，由SDESBatch的当前引擎完成
+     * @param in 明文数组
+     * @param inOff 明文起始位置
+     * @param len 字节数
+     * @param out 密文数组，可以与明文数组相同
+     * @param outOff 密文起始位置
+     * @param key 10位密钥
+     */
+    public static void encrypt(byte[] in, int inOff, int len, byte[] out, int outOff, int key) {
+        SDESBatch.encrypt(in, inOff, len, out, outOff, key);
+    }
+    
+    /**
+     * 批量解密字节数组 (ECB模式，每个字节为一个数据块)，由SDESBatch的当前引擎完成
+     * @param in 密文数组
+     * @param inOff 密文起始位置
+     * @param len 字节数
+     * @param out 明文数组，可以与密文数组相同
+     * @param outOff 明文起始位置
+     * @param key 10位密钥
+     */
+    public static void decrypt(byte[] in, int inOff, int len, byte[] out, int outOff, int key) {
+        SDESBatch.decrypt(in, inOff, len, out, outOff, key);
+    }
+    
+    /**
+     * 批量加密缓冲区中的剩余数据 (ECB模式)，处理后两个缓冲区的位置均向后移动
+     * @param in 明文缓冲区
+     * @param out 密文缓冲区，剩余空间不得少于明文
+     * @param key 10位密钥
+     */
+    public static void encrypt(ByteBuffer in, ByteBuffer out, int key) {
+        SDESBatch.encrypt(in, out, key);
+    }
+    
+    /**
+     * 批量解密缓冲区中的剩余数据 (ECB模式)
+     * @param in 密文缓冲区
+     * @param out 明文缓冲区，剩余空间不得少于密文
+     * @param key 10位密钥
+     */
+    public static void decrypt(ByteBuffer in, ByteBuffer out, int key) {
+        SDESBatch.decrypt(in, out, key);
     }
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+import java.nio.ByteBuffer;
+
+/**
+ * S-DES批量加解密入口
+ * 运行时存在jdk.incubator.vector模块时使用VectorSDES向量化实现，否则退回标量实现
+ *
+ * VectorSDES位于单独的可选源码目录vector中，默认构建不编译它，不需要孵化模块：
+ *   javac -d out SDES/*.java
+ * 需要向量化实现时额外编译该目录，运行时同样要加上模块参数：
+ *   javac -d out --add-modules jdk.incubator.vector SDES/*.java SDES/vector/*.java
+ *   java -cp out --add-modules jdk.incubator.vector MainGUI
+ * 两种实现都可以单独运行，穷举校验全部密钥和数据块与标量实现一致：
+ *   java -cp out BitslicedSDES
+ *   java -cp out --add-modules jdk.incubator.vector VectorSDES
+ */
+public class SDESBatch {
+
+    /**
+     * 批量加解密引擎
+     */
+    public interface Engine {
+        /**
+         * 用同一密钥加密或解密数组中的多个数据块
+         * @param in 输入数组
+         * @param inOff 输入起始位置
+         * @param len 数据块数量（字节数）
+         * @param out 输出数组，可以与输入相同
+         * @param outOff 输出起始位置
+         * @param key 10位密钥
+         * @param decrypt true为解密，false为加密
+         */
+        void process(byte[] in, int inOff, int len, byte[] out, int outOff, int key, boolean decrypt);
+
+        /**
+         * 用同一密钥加密或解密缓冲区中的剩余数据块，处理后两个缓冲区的位置均向后移动
+         * @param in 输入缓冲区
+         * @param out 输出缓冲区，剩余空间不得少于输入
+         * @param key 10位密钥
+         * @param decrypt true为解密，false为加密
+         */
+        void process(ByteBuffer in, ByteBuffer out, int key, boolean decrypt);
+
+        /**
+         * 用多个密钥加密同一个数据块
+         * @param block 8位明文
+         * @param keys 密钥数组
+         * @param out 输出数组，out[i]为keys[i]下的密文
+         */
+        void encryptKeys(int block, int[] keys, byte[] out);
+
+        /**
+         * 引擎名称
+         */
+        String name();
+    }
+
+    // 标量引擎处理的数据量不少于此值时先为密钥生成256项查找表，再逐字节查表
+    private static final int BULK_TABLE_THRESHOLD = 256;
+
+    private static final Engine ENGINE = loadEngine();
+
+    private SDESBatch() {
+    }
+
+    /**
+     * 优先加载向量化引擎，模块不可用或加载失败时使用标量引擎
+     */
+    private static Engine loadEngine() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Engine) Class.forName("VectorSDES").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // 退回标量实现
+            }
+        }
+        return new ScalarEngine();
+    }
+
+    /**
+     * 当前使用的引擎
+     */
+    public static Engine engine() {
+        return ENGINE;
+    }
+
+    /**
+     * 用同一密钥加密多个数据块
+     */
+    public static void encrypt(byte[] in, int inOff, int len, byte[] out, int outOff, int key) {
+        ENGINE.process(in, inOff, len, out, outOff, key, false);
+    }
+
+    /**
+     * 用同一密钥解密多个数据块
+     */
+    public static void decrypt(byte[] in, int inOff, int len, byte[] out, int outOff, int key) {
+        ENGINE.process(in, inOff, len, out, outOff, key, true);
+    }
+
+    /**
+     * 用同一密钥加密缓冲区中的剩余数据块
+     */
+    public static void encrypt(ByteBuffer in, ByteBuffer out, int key) {
+        ENGINE.process(in, out, key, false);
+    }
+
+    /**
+     * 用同一密钥解密缓冲区中的剩余数据块
+     */
+    public static void decrypt(ByteBuffer in, ByteBuffer out, int key) {
+        ENGINE.process(in, out, key, true);
+    }
+
+    /**
+     * 用多个密钥加密同一个数据块
+     */
+    public static void encryptKeys(int block, int[] keys, byte[] out) {
+        ENGINE.encryptKeys(block, keys, out);
+    }
+
+    /**
+     * 按256项查找表逐字节替换，ECB方式各处的批量加解密都由此完成
+     * @param table SDES.encryptTable或SDES.decryptTable生成的查找表
+     */
+    static void substitute(byte[] in, int inOff, int len, byte[] out, int outOff, byte[] table) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = table[in[inOff + i] & 0xFF];
+        }
+    }
+
+    /**
+     * 按绝对位置对缓冲区中的一段数据查表替换，不改变缓冲区状态，可被多个线程同时访问不同区间
+     * 两个缓冲区都有底层数组时直接在数组上处理
+     */
+    static void substitute(ByteBuffer in, int inIndex, int len, ByteBuffer out, int outIndex, byte[] table) {
+        if (in.hasArray() && out.hasArray()) {
+            substitute(in.array(), in.arrayOffset() + inIndex, len, out.array(), out.arrayOffset() + outIndex, table);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            out.put(outIndex + i, table[in.get(inIndex + i) & 0xFF]);
+        }
+    }
+
+    /**
+     * 标量引擎，数据量较大时按查找表替换，否则逐块计算
+     */
+    public static class ScalarEngine implements Engine {
+
+        @Override
+        public void process(byte[] in, int inOff, int len, byte[] out, int outOff, int key, boolean decrypt) {
+            if (len >= BULK_TABLE_THRESHOLD) {
+                substitute(in, inOff, len, out, outOff, decrypt ? SDES.decryptTable(key) : SDES.encryptTable(key));
+                return;
+            }
+            for (int i = 0; i < len; i++) {
+                int block = in[inOff + i];
+                out[outOff + i] = (byte) (decrypt ? SDES.decrypt(block, key) : SDES.encrypt(block, key));
+            }
+        }
+
+        @Override
+        public void process(ByteBuffer in, ByteBuffer out, int key, boolean decrypt) {
+            int len = in.remaining();
+            if (out.remaining() < len) {
+                throw new IllegalArgumentException("输出缓冲区空间不足");
+            }
+
+            int inPos = in.position();
+            int outPos = out.position();
+            if (in.hasArray() && out.hasArray()) {
+                process(in.array(), in.arrayOffset() + inPos, len, out.array(), out.arrayOffset() + outPos, key, decrypt);
+            } else {
+                // 直接缓冲区按绝对位置读写，不做中间拷贝
+                substitute(in, inPos, len, out, outPos, decrypt ? SDES.decryptTable(key) : SDES.encryptTable(key));
+            }
+            in.position(inPos + len);
+            out.position(outPos + len);
+        }
+
+        @Override
+        public void encryptKeys(int block, int[] keys, byte[] out) {
+            for (int i = 0; i < keys.length; i++) {
+                out[i] = (byte) SDESCodebook.encrypt(block, keys[i]);
+            }
+        }
+
+        @Override
+        public String name() {
+            return "标量";
+        }
+    }
+}
\ No newline at end of file
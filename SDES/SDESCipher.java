@@ -0,0 +1,251 @@
+import java.nio.ByteBuffer;
+
+/**
+ * S-DES分组密码工作模式
+ * 支持ECB、CBC、CFB-8、OFB和CTR，数据可以分多次通过update输入，不需要整体缓存。
+ * S-DES的分组长度为8位，每个字节恰好是一个数据块，因此各模式都不需要填充
+ */
+public class SDESCipher {
+
+    /**
+     * 工作模式
+     */
+    public enum Mode {
+        ECB, CBC, CFB8, OFB, CTR
+    }
+
+    private final Mode mode;
+    private final boolean decrypt;
+    private final int iv;
+
+    // 当前密钥的加密表和解密表
+    private final byte[] encryptTable;
+    private final byte[] decryptTable;
+
+    // CTR模式的密钥流，下标为已处理字节数的低8位
+    private final byte[] keyStream;
+
+    // 链接寄存器: CBC/CFB为上一个密文块，OFB为上一个输出块
+    private int register;
+
+    // 自初始化或reset以来处理的字节数
+    private long position;
+
+    // 直接缓冲区的中转数组，首次使用时创建并重复使用
+    private byte[] transferBuffer;
+
+    /**
+     * 创建加解密器
+     * @param mode 工作模式
+     * @param decrypt true为解密，false为加密
+     * @param key 10位密钥
+     * @param iv 8位初始向量，ECB模式下忽略；CTR模式下为计数器初值
+     */
+    public SDESCipher(Mode mode, boolean decrypt, int key, int iv) {
+        this.mode = mode;
+        this.decrypt = decrypt;
+        this.iv = iv & 0xFF;
+        this.encryptTable = SDES.encryptTable(key);
+        this.decryptTable = decrypt && (mode == Mode.ECB || mode == Mode.CBC) ? SDES.decryptTable(key) : null;
+
+        this.keyStream = mode == Mode.CTR ? keyStream(key, iv) : null;
+
+        reset();
+    }
+
+    /**
+     * 处理一段数据，可以多次调用
+     * @param in 输入数组
+     * @param inOff 输入起始位置
+     * @param len 字节数
+     * @param out 输出数组，可以与输入数组相同
+     * @param outOff 输出起始位置
+     * @return 写入输出的字节数
+     */
+    public int update(byte[] in, int inOff, int len, byte[] out, int outOff) {
+        switch (mode) {
+            case ECB:
+                SDESBatch.substitute(in, inOff, len, out, outOff, decrypt ? decryptTable : encryptTable);
+                break;
+            case CBC:
+                for (int i = 0; i < len; i++) {
+                    int block = in[inOff + i] & 0xFF;
+                    if (decrypt) {
+                        out[outOff + i] = (byte) ((decryptTable[block] & 0xFF) ^ register);
+                        register = block;
+                    } else {
+                        register = encryptTable[block ^ register] & 0xFF;
+                        out[outOff + i] = (byte) register;
+                    }
+                }
+                break;
+            case CFB8:
+                for (int i = 0; i < len; i++) {
+                    int block = in[inOff + i] & 0xFF;
+                    int result = block ^ (encryptTable[register] & 0xFF);
+                    out[outOff + i] = (byte) result;
+                    register = decrypt ? block : result;
+                }
+                break;
+            case OFB:
+                for (int i = 0; i < len; i++) {
+                    register = encryptTable[register] & 0xFF;
+                    out[outOff + i] = (byte) (in[inOff + i] ^ register);
+                }
+                break;
+            case CTR:
+                applyKeyStream(in, inOff, len, out, outOff, keyStream, position);
+                break;
+            default:
+                throw new IllegalStateException("不支持的工作模式: " + mode);
+        }
+        position += len;
+        return len;
+    }
+
+    /**
+     * CTR模式的256字节密钥流，下标为消息偏移的低8位
+     * @param key 10位密钥
+     * @param iv 8位计数器初值
+     */
+    static byte[] keyStream(int key, int iv) {
+        byte[] encryptTable = SDES.encryptTable(key);
+        byte[] stream = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            stream[i] = encryptTable[(iv + i) & 0xFF];
+        }
+        return stream;
+    }
+
+    /**
+     * 用CTR密钥流异或一段数据
+     * @param keyStream keyStream(key, iv)生成的密钥流
+     * @param position 输入第一个字节在整条消息中的偏移
+     */
+    static void applyKeyStream(byte[] in, int inOff, int len, byte[] out, int outOff,
+                               byte[] keyStream, long position) {
+        int counter = (int) position;
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = (byte) (in[inOff + i] ^ keyStream[(counter + i) & 0xFF]);
+        }
+    }
+
+    /**
+     * 按绝对位置用CTR密钥流异或缓冲区中的一段数据，不改变缓冲区状态，可被多个线程同时访问不同区间
+     * 两个缓冲区都有底层数组时直接在数组上处理
+     */
+    static void applyKeyStream(ByteBuffer in, int inIndex, int len, ByteBuffer out, int outIndex,
+                               byte[] keyStream, long position) {
+        if (in.hasArray() && out.hasArray()) {
+            applyKeyStream(in.array(), in.arrayOffset() + inIndex, len, out.array(), out.arrayOffset() + outIndex,
+                           keyStream, position);
+            return;
+        }
+        int counter = (int) position;
+        for (int i = 0; i < len; i++) {
+            out.put(outIndex + i, (byte) (in.get(inIndex + i) ^ keyStream[(counter + i) & 0xFF]));
+        }
+    }
+
+    /**
+     * 处理缓冲区中的剩余数据，处理后两个缓冲区的位置均向后移动
+     * 堆缓冲区直接在底层数组上处理，直接缓冲区经内部复用的数组分段中转
+     * @param in 输入缓冲区
+     * @param out 输出缓冲区，剩余空间不得少于输入
+     * @return 写入输出的字节数
+     */
+    public int update(ByteBuffer in, ByteBuffer out) {
+        int len = in.remaining();
+        if (out.remaining() < len) {
+            throw new IllegalArgumentException("输出缓冲区空间不足");
+        }
+
+        if (in.hasArray() && out.hasArray()) {
+            update(in.array(), in.arrayOffset() + in.position(), len,
+                   out.array(), out.arrayOffset() + out.position());
+            in.position(in.position() + len);
+            out.position(out.position() + len);
+            return len;
+        }
+
+        if (transferBuffer == null) {
+            transferBuffer = new byte[8192];
+        }
+        int remaining = len;
+        while (remaining > 0) {
+            int n = Math.min(remaining, transferBuffer.length);
+            in.get(transferBuffer, 0, n);
+            update(transferBuffer, 0, n, transferBuffer, 0);
+            out.put(transferBuffer, 0, n);
+            remaining -= n;
+        }
+        return len;
+    }
+
+    /**
+     * 处理一段数据并返回新数组
+     * @param in 输入数据
+     * @return 输出数据
+     */
+    public byte[] update(byte[] in) {
+        byte[] out = new byte[in.length];
+        update(in, 0, in.length, out, 0);
+        return out;
+    }
+
+    /**
+     * 处理最后一段数据，之后恢复到初始状态，可以继续处理下一条消息
+     * @return 写入输出的字节数
+     */
+    public int doFinal(byte[] in, int inOff, int len, byte[] out, int outOff) {
+        int written = update(in, inOff, len, out, outOff);
+        reset();
+        return written;
+    }
+
+    /**
+     * 处理最后一段数据并返回新数组，之后恢复到初始状态
+     */
+    public byte[] doFinal(byte[] in) {
+        byte[] out = update(in);
+        reset();
+        return out;
+    }
+
+    /**
+     * 跳转到消息中的指定字节位置，仅ECB和CTR模式支持随机访问
+     * @param position 从消息开头算起的字节偏移
+     */
+    public void seek(long position) {
+        if (mode != Mode.ECB && mode != Mode.CTR) {
+            throw new IllegalStateException(mode + "模式不支持随机访问");
+        }
+        if (position < 0) {
+            throw new IllegalArgumentException("位置不能为负数");
+        }
+        this.position = position;
+    }
+
+    /**
+     * 恢复到初始向量状态
+     */
+    public void reset() {
+        register = iv;
+        position = 0;
+    }
+
+    /**
+     * 自初始化或上次重置以来处理的字节数
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isDecrypt() {
+        return decrypt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,805 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * S-DES无界面命令行工具
+ * 不加载Swing，适合在没有显示器的服务器上用脚本调用
+ *
+ * 用法:
+ *   java SDESCli encrypt|decrypt --key 10位二进制 [--in 文件|-] [--out 文件|-]
+ *                [--format bin|hex|raw] [--output-format bin|hex|raw] [--mode ECB|CBC|CFB8|OFB|CTR] [--iv 8位二进制]
+ *                [--progress 毫秒]
+ *   java SDESCli crack [--pairs 文件|-] [--progress 毫秒] [--rank 候选数] [--index 索引文件]
+ *                [--cipher sdes|double|ede2|ede3] [--checkpoint 检查点文件] [--listen 端口] [--workers 进程数]
+ *   java SDESCli crack --jobs 文件|- [--progress 毫秒]
+ *   java SDESCli guess [--in 文件|-] [--format bin|hex|raw] [--top 候选数]
+ *   java SDESCli rainbow --table 彩虹表文件 --ciphertext 十六进制 [--cipher sdes|double|ede2|ede3]
+ *                [--plaintext 十六进制] [--chain-length 链长 --chains 每张表的链数] [--tables 表数]
+ *
+ * 指定--progress时按给定间隔向错误输出写入JSON格式的进度快照，结束时再写一次最终快照
+ * crack指定--cipher double时用中间相遇攻击恢复双重S-DES的20位组合密钥（k1在前），此时只接受--pairs；
+ * 指定ede2或ede3时穷举三重S-DES的组合密钥，可用--checkpoint保存进度并在重新运行时续传；
+ * 指定--listen或--workers时改为分布式搜索：--listen在给定端口等待KeySearchWorker连接，
+ * --workers在本机启动给定数量的工作进程，不能与--checkpoint同时使用；没有可用的工作进程超过一段时间
+ * （只用本机进程时5秒，监听时60秒）即放弃并以退出码3结束
+ * crack指定--index时映射明密文对索引文件（不存在时先构建）并直接查询索引
+ * crack指定--rank时容许部分明密文对出错，按满足的明密文对数输出排名靠前的密钥；--rank、--index和--progress三者互斥
+ * crack指定--jobs时批量破解多个相互独立的任务，所有任务共用一次密钥空间遍历；任务文件每行一个任务，
+ * 依次列出该任务的明文和密文，如 "明文1 密文1 明文2 密文2"，输出 {"jobs","results"}，
+ * results中每项的格式与单个任务的输出相同，任一任务没有找到密钥时退出码为1
+ * guess对ECB方式加密的文本做唯密文攻击，按得分从高到低输出候选密钥，输入格式默认为raw
+ * rainbow用彩虹表从选择明文的密文恢复组合密钥，彩虹表文件不存在时先构建，未指定链长和链数时使用默认参数；
+ * 选择明文和密文均为十六进制，字节数为 ceil(密钥位数 / 8)，选择明文默认为 "SDES" 的前几个字节；
+ * 输出 {"plaintext","ciphertext","key"}，表中没有覆盖该密文时key为null
+ * 未知的选项、不适用于当前子命令或算法的选项以及相互冲突的选项均按参数错误处理，不会被静默忽略
+ * 明密文对文件每行一对，以空白分隔，每项为8位二进制或2位十六进制，空行和#开头的行被忽略
+ * 退出码: 0成功，1未找到密钥，2参数错误，3输入输出错误
+ */
+public class SDESCli {
+
+    // 输入输出缓冲区大小
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    // 分布式搜索只使用本机工作进程时，它们全部退出后再等待的时间
+    private static final long LOCAL_IDLE_TIMEOUT_MILLIS = 5000;
+
+    // 分布式搜索监听远程工作进程时，没有任何工作进程连接的最长等待时间
+    private static final long REMOTE_IDLE_TIMEOUT_MILLIS = 60000;
+
+    // 彩虹表默认的选择明文 "SDES"，按变体所需的字节数截取
+    private static final byte[] DEFAULT_CHOSEN_PLAINTEXT = {'S', 'D', 'E', 'S'};
+
+    /**
+     * 数据格式
+     */
+    public enum Format {
+        BIN, HEX, RAW
+    }
+
+    private SDESCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    /**
+     * 执行一条命令
+     * @param args 命令行参数
+     * @param stdin 标准输入
+     * @param stdout 标准输出
+     * @param stderr 错误输出
+     * @return 退出码
+     */
+    public static int run(String[] args, InputStream stdin, PrintStream stdout, PrintStream stderr) {
+        if (args.length == 0) {
+            printUsage(stderr);
+            return 2;
+        }
+
+        // 保持命令行中的顺序，报告第一个出错的选项
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                stderr.println("无效的参数: " + args[i]);
+                printUsage(stderr);
+                return 2;
+            }
+            if (options.put(args[i].substring(2), args[i + 1]) != null) {
+                stderr.println("重复的参数: " + args[i]);
+                return 2;
+            }
+            i++;
+        }
+
+        try {
+            switch (args[0]) {
+                case "encrypt":
+                case "decrypt":
+                    checkOptions(options, args[0] + "命令",
+                            "key", "in", "out", "format", "output-format", "mode", "iv", "progress");
+                    return crypt(options, "decrypt".equals(args[0]), stdin, stdout, stderr);
+                case "crack":
+                    checkOptions(options, "crack命令", "pairs", "progress", "rank", "index", "cipher", "checkpoint",
+                            "listen", "workers", "jobs");
+                    return crack(options, stdin, stdout, stderr);
+                case "guess":
+                    checkOptions(options, "guess命令", "in", "format", "top");
+                    return guess(options, stdin, stdout);
+                case "rainbow":
+                    checkOptions(options, "rainbow命令",
+                            "table", "ciphertext", "cipher", "plaintext", "chain-length", "chains", "tables");
+                    return rainbow(options, stdout);
+                default:
+                    printUsage(stderr);
+                    return 2;
+            }
+        } catch (IllegalArgumentException e) {
+            stderr.println("参数错误: " + e.getMessage());
+            return 2;
+        } catch (IOException e) {
+            stderr.println("输入输出错误: " + e.getMessage());
+            return 3;
+        }
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("用法:");
+        out.println("  java SDESCli encrypt|decrypt --key 10位二进制 [--in 文件|-] [--out 文件|-]");
+        out.println("               [--format bin|hex|raw] [--output-format bin|hex|raw]");
+        out.println("               [--mode ECB|CBC|CFB8|OFB|CTR] [--iv 8位二进制] [--progress 毫秒]");
+        out.println("  java SDESCli crack [--pairs 文件|-] [--progress 毫秒] [--rank 候选数] [--index 索引文件]");
+        out.println("               [--cipher sdes|double|ede2|ede3] [--checkpoint 检查点文件]");
+        out.println("               [--listen 端口] [--workers 进程数]");
+        out.println("  java SDESCli crack --jobs 文件|- [--progress 毫秒]");
+        out.println("  java SDESCli guess [--in 文件|-] [--format bin|hex|raw] [--top 候选数]");
+        out.println("  java SDESCli rainbow --table 彩虹表文件 --ciphertext 十六进制 [--cipher sdes|double|ede2|ede3]");
+        out.println("               [--plaintext 十六进制] [--chain-length 链长 --chains 每张表的链数] [--tables 表数]");
+    }
+
+    /**
+     * 检查所有选项都适用于当前场合，第一个不适用的选项作为参数错误报告，而不是静默忽略
+     * @param context 当前场合，如"crack命令"、"--cipher double"
+     * @param allowed 允许的选项名，不含"--"
+     */
+    private static void checkOptions(Map<String, String> options, String context, String... allowed) {
+        List<String> names = Arrays.asList(allowed);
+        for (String name : options.keySet()) {
+            if (!names.contains(name)) {
+                throw new IllegalArgumentException("--" + name + "不适用于" + context);
+            }
+        }
+    }
+
+    /**
+     * 两个选项不能同时指定
+     */
+    private static void checkExclusive(Map<String, String> options, String first, String second) {
+        if (options.containsKey(first) && options.containsKey(second)) {
+            throw new IllegalArgumentException("--" + first + "不能与--" + second + "同时使用");
+        }
+    }
+
+    /**
+     * 根据--progress选项创建遥测，未指定时返回null
+     * @param total 总工作量，未知时为0
+     */
+    private static JobTelemetry startTelemetry(Map<String, String> options, String unit, long total, PrintStream stderr) {
+        String interval = options.get("progress");
+        if (interval == null) {
+            return null;
+        }
+        long millis;
+        try {
+            millis = Long.parseLong(interval);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--progress必须是正整数毫秒数");
+        }
+        if (millis <= 0) {
+            throw new IllegalArgumentException("--progress必须是正整数毫秒数");
+        }
+        JobTelemetry telemetry = new JobTelemetry(unit, total);
+        telemetry.addListener(snapshot -> stderr.println(snapshot.toJson()));
+        telemetry.start(millis);
+        return telemetry;
+    }
+
+    /**
+     * 流式加解密，输入按块解码、加解密、编码后立即写出
+     */
+    private static int crypt(Map<String, String> options, boolean decrypt, InputStream stdin, PrintStream stdout,
+                             PrintStream stderr) throws IOException {
+        String key = options.get("key");
+        if (!Utils.isValidBinary(key, 10)) {
+            throw new IllegalArgumentException("--key必须是10位二进制数");
+        }
+        String iv = options.getOrDefault("iv", "00000000");
+        if (!Utils.isValidBinary(iv, 8)) {
+            throw new IllegalArgumentException("--iv必须是8位二进制数");
+        }
+        SDESCipher.Mode mode = SDESCipher.Mode.valueOf(options.getOrDefault("mode", "ECB").toUpperCase());
+        Format inputFormat = Format.valueOf(options.getOrDefault("format", "bin").toUpperCase());
+        Format outputFormat = Format.valueOf(options.getOrDefault("output-format", inputFormat.name()).toUpperCase());
+
+        SDESCipher cipher = new SDESCipher(mode, decrypt, Utils.binaryStringToInt(key), Utils.binaryStringToInt(iv));
+        String inPath = options.get("in");
+        // 标准输入和管道的总长度未知
+        long total = inPath != null && Files.isRegularFile(Paths.get(inPath)) ? Files.size(Paths.get(inPath)) : 0;
+        JobTelemetry telemetry = startTelemetry(options, "字节", total, stderr);
+
+        try (InputStream in = openInput(options.get("in"), stdin);
+             OutputStream out = openOutput(options.get("out"), stdout)) {
+            byte[] input = new byte[IO_BUFFER_SIZE];
+            byte[] data = new byte[IO_BUFFER_SIZE];
+            byte[] encoded = new byte[IO_BUFFER_SIZE * 9];
+            TextDecoder decoder = new TextDecoder(inputFormat);
+            boolean first = true;
+
+            int n;
+            while ((n = in.read(input)) > 0) {
+                int count;
+                if (inputFormat == Format.RAW) {
+                    System.arraycopy(input, 0, data, 0, n);
+                    count = n;
+                } else {
+                    count = decoder.decode(input, n, data);
+                }
+                cipher.update(data, 0, count, data, 0);
+                out.write(encoded, 0, encode(data, count, outputFormat, encoded, first));
+                first &= count == 0;
+                if (telemetry != null) {
+                    telemetry.addCompleted(n);
+                }
+            }
+            decoder.finish();
+
+            if (outputFormat != Format.RAW) {
+                out.write('\n');
+            }
+        } finally {
+            if (telemetry != null) {
+                telemetry.stop();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 已知明文攻击，每对明密文的匹配密钥位图求交集
+     */
+    private static int crack(Map<String, String> options, InputStream stdin, PrintStream stdout, PrintStream stderr)
+            throws IOException {
+        if (options.containsKey("jobs")) {
+            return crackJobs(options, stdin, stdout, stderr);
+        }
+        String cipher = options.getOrDefault("cipher", "sdes");
+        switch (cipher) {
+            case "double":
+                checkOptions(options, "--cipher double", "pairs", "cipher");
+                break;
+            case "ede2":
+            case "ede3":
+                checkOptions(options, "--cipher " + cipher, "pairs", "cipher", "progress", "checkpoint",
+                        "listen", "workers");
+                checkExclusive(options, "checkpoint", "listen");
+                checkExclusive(options, "checkpoint", "workers");
+                break;
+            case "sdes":
+                checkOptions(options, "--cipher sdes", "pairs", "cipher", "progress", "rank", "index");
+                checkExclusive(options, "rank", "index");
+                checkExclusive(options, "progress", "rank");
+                checkExclusive(options, "progress", "index");
+                break;
+            default:
+                throw new IllegalArgumentException("无效的算法: " + cipher);
+        }
+
+        List<int[]> pairs = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(openInput(options.get("pairs"), stdin), StandardCharsets.UTF_8), IO_BUFFER_SIZE)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split("\\s+");
+                if (tokens.length != 2) {
+                    throw new IllegalArgumentException("第" + lineNumber + "行必须包含明文和密文两项");
+                }
+                pairs.add(new int[]{parseBlock(tokens[0], lineNumber), parseBlock(tokens[1], lineNumber)});
+            }
+        }
+        if (pairs.isEmpty()) {
+            throw new IllegalArgumentException("没有明密文对");
+        }
+
+        int[] plaintexts = new int[pairs.size()];
+        int[] ciphertexts = new int[pairs.size()];
+        for (int p = 0; p < pairs.size(); p++) {
+            plaintexts[p] = pairs.get(p)[0];
+            ciphertexts[p] = pairs.get(p)[1];
+        }
+        if ("double".equals(cipher)) {
+            return printKeys(pairs.size(), MeetInTheMiddle.attack(plaintexts, ciphertexts), DoubleSDES.KEY_BITS, stdout);
+        } else if (!"sdes".equals(cipher)) {
+            return searchVariant(SDESVariant.valueOf(cipher.toUpperCase()), plaintexts, ciphertexts, options, stdout, stderr);
+        }
+        if (options.containsKey("rank")) {
+            return rank(plaintexts, ciphertexts, options.get("rank"), stdout);
+        }
+        int[] keys;
+        JobTelemetry telemetry = startTelemetry(options, "密钥", SDESCodebook.KEY_COUNT, stderr);
+        if (options.containsKey("index")) {
+            keys = PairKeyIndex.openOrBuild(Paths.get(options.get("index"))).query(plaintexts, ciphertexts).toArray();
+        } else if (telemetry == null) {
+            keys = KeyCandidateSet.forPairs(plaintexts, ciphertexts).toArray();
+        } else {
+            try {
+                keys = BruteForceProcessor.searchKeys(plaintexts, ciphertexts, BruteForceProcessor.Engine.BITSLICED,
+                        () -> false, telemetry).toArray();
+            } finally {
+                telemetry.stop();
+            }
+        }
+
+        return printKeys(pairs.size(), keys, 10, stdout);
+    }
+
+    /**
+     * 批量已知明文攻击，由MultiJobCracker对所有任务只遍历一次密钥空间
+     */
+    private static int crackJobs(Map<String, String> options, InputStream stdin, PrintStream stdout,
+                                 PrintStream stderr) throws IOException {
+        checkOptions(options, "--jobs", "jobs", "progress", "cipher");
+        if (!"sdes".equals(options.getOrDefault("cipher", "sdes"))) {
+            throw new IllegalArgumentException("--jobs只支持--cipher sdes");
+        }
+        List<int[]> plaintexts = new ArrayList<>();
+        List<int[]> ciphertexts = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(openInput(options.get("jobs"), stdin), StandardCharsets.UTF_8), IO_BUFFER_SIZE)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split("\\s+");
+                if (tokens.length % 2 != 0) {
+                    throw new IllegalArgumentException("第" + lineNumber + "行的明文和密文必须成对出现");
+                }
+                int[] jobPlaintexts = new int[tokens.length / 2];
+                int[] jobCiphertexts = new int[tokens.length / 2];
+                for (int p = 0; p < jobPlaintexts.length; p++) {
+                    jobPlaintexts[p] = parseBlock(tokens[2 * p], lineNumber);
+                    jobCiphertexts[p] = parseBlock(tokens[2 * p + 1], lineNumber);
+                }
+                plaintexts.add(jobPlaintexts);
+                ciphertexts.add(jobCiphertexts);
+            }
+        }
+        if (plaintexts.isEmpty()) {
+            throw new IllegalArgumentException("没有破解任务");
+        }
+
+        JobTelemetry telemetry = startTelemetry(options, "密钥", SDESCodebook.KEY_COUNT, stderr);
+        KeyCandidateSet[] results;
+        try {
+            results = MultiJobCracker.crack(plaintexts.toArray(new int[0][]), ciphertexts.toArray(new int[0][]),
+                    telemetry);
+        } finally {
+            if (telemetry != null) {
+                telemetry.stop();
+            }
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"jobs\":").append(results.length).append(",\"results\":[");
+        boolean allFound = true;
+        for (int job = 0; job < results.length; job++) {
+            if (job > 0) {
+                json.append(',');
+            }
+            int[] keys = results[job].toArray();
+            json.append(keysJson(plaintexts.get(job).length, keys, 10));
+            allFound &= keys.length > 0;
+        }
+        json.append("]}");
+        stdout.println(json);
+        stdout.flush();
+        return allFound ? 0 : 1;
+    }
+
+    /**
+     * 穷举多重S-DES的组合密钥，指定检查点文件时可以中断后续传
+     */
+    private static int searchVariant(SDESVariant variant, int[] plaintexts, int[] ciphertexts,
+                                     Map<String, String> options, PrintStream stdout, PrintStream stderr)
+            throws IOException {
+        if (options.containsKey("listen") || options.containsKey("workers")) {
+            return searchDistributed(variant, plaintexts, ciphertexts, options, stdout, stderr);
+        }
+        String checkpoint = options.get("checkpoint");
+        KeySpaceSearch search = new KeySpaceSearch(variant, plaintexts, ciphertexts,
+                checkpoint == null ? null : Paths.get(checkpoint));
+        JobTelemetry telemetry = startTelemetry(options, "密钥", variant.keyCount(), stderr);
+        int[] keys;
+        try {
+            keys = search.run(telemetry);
+        } finally {
+            if (telemetry != null) {
+                telemetry.stop();
+            }
+        }
+        return printKeys(plaintexts.length, keys, variant.keyBits(), stdout);
+    }
+
+    /**
+     * 由协调者把工作单元分发给本机或远程的工作进程
+     */
+    private static int searchDistributed(SDESVariant variant, int[] plaintexts, int[] ciphertexts,
+                                         Map<String, String> options, PrintStream stdout, PrintStream stderr)
+            throws IOException {
+        int port = options.containsKey("listen") ? parseCount(options.get("listen"), "--listen") : 0;
+        int workers = options.containsKey("workers") ? parseCount(options.get("workers"), "--workers") : 0;
+        if (workers == 0 && !options.containsKey("listen")) {
+            throw new IllegalArgumentException("不指定--listen时--workers必须大于0");
+        }
+        // 只启动本机工作进程时不对外监听
+        InetAddress bind = options.containsKey("listen") ? null : InetAddress.getLoopbackAddress();
+
+        List<Process> processes = new ArrayList<>();
+        JobTelemetry telemetry = null;
+        try (KeySearchCoordinator coordinator = new KeySearchCoordinator(variant, plaintexts, ciphertexts, port, bind)) {
+            coordinator.start();
+            stderr.println("协调者监听端口: " + coordinator.getPort());
+            telemetry = startTelemetry(options, "密钥", variant.keyCount(), stderr);
+            coordinator.setTelemetry(telemetry);
+            processes.addAll(coordinator.launchLocalWorkers(workers));
+            int[] keys = coordinator.awaitResult(options.containsKey("listen")
+                    ? REMOTE_IDLE_TIMEOUT_MILLIS : LOCAL_IDLE_TIMEOUT_MILLIS);
+            return printKeys(plaintexts.length, keys, variant.keyBits(), stdout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待工作进程时被中断");
+        } finally {
+            if (telemetry != null) {
+                telemetry.stop();
+            }
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    /**
+     * 解析非负整数选项
+     */
+    private static int parseCount(String value, String name) {
+        try {
+            int count = Integer.parseInt(value);
+            if (count >= 0) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // 下面统一报错
+        }
+        throw new IllegalArgumentException(name + "必须是非负整数");
+    }
+
+    /**
+     * 以JSON输出破解结果
+     * @param keyBits 密钥位数
+     * @return 找到密钥时为0，否则为1
+     */
+    private static int printKeys(int pairCount, int[] keys, int keyBits, PrintStream stdout) {
+        stdout.println(keysJson(pairCount, keys, keyBits));
+        stdout.flush();
+        return keys.length > 0 ? 0 : 1;
+    }
+
+    /**
+     * 单个破解任务结果的JSON描述 {"pairs","keys","candidates"}
+     */
+    private static String keysJson(int pairCount, int[] keys, int keyBits) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"pairs\":").append(pairCount).append(",\"keys\":[");
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(Utils.intToBinaryString(keys[i], keyBits)).append('"');
+        }
+        json.append("],\"candidates\":").append(keys.length).append('}');
+        return json.toString();
+    }
+
+    /**
+     * 容错排名，输出满足明密文对最多的若干密钥
+     */
+    private static int rank(int[] plaintexts, int[] ciphertexts, String top, PrintStream stdout) {
+        int topK;
+        try {
+            topK = Integer.parseInt(top);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--rank必须是正整数");
+        }
+        List<NoisyPairRanker.RankedKey> ranked = NoisyPairRanker.rank(plaintexts, ciphertexts, topK);
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"pairs\":").append(plaintexts.length).append(",\"ranked\":[");
+        for (int i = 0; i < ranked.size(); i++) {
+            NoisyPairRanker.RankedKey key = ranked.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT, "{\"key\":\"%s\",\"matches\":%d,\"confidence\":%.4f}",
+                    Utils.intToBinaryString(key.key, 10), key.matches, key.confidence));
+        }
+        json.append("]}");
+        stdout.println(json);
+        stdout.flush();
+        return ranked.get(0).matches > 0 ? 0 : 1;
+    }
+
+    /**
+     * 唯密文攻击，读入全部密文后按文本特征为每个密钥打分
+     */
+    private static int guess(Map<String, String> options, InputStream stdin, PrintStream stdout) throws IOException {
+        Format format = Format.valueOf(options.getOrDefault("format", "raw").toUpperCase());
+        int topK;
+        try {
+            topK = Integer.parseInt(options.getOrDefault("top", "5"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--top必须是正整数");
+        }
+
+        ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+        try (InputStream in = openInput(options.get("in"), stdin)) {
+            byte[] input = new byte[IO_BUFFER_SIZE];
+            byte[] data = new byte[IO_BUFFER_SIZE];
+            TextDecoder decoder = new TextDecoder(format);
+            int n;
+            while ((n = in.read(input)) > 0) {
+                if (format == Format.RAW) {
+                    ciphertext.write(input, 0, n);
+                } else {
+                    ciphertext.write(data, 0, decoder.decode(input, n, data));
+                }
+            }
+            decoder.finish();
+        }
+        if (ciphertext.size() == 0) {
+            throw new IllegalArgumentException("没有密文");
+        }
+
+        List<CiphertextOnlyCracker.Candidate> candidates = CiphertextOnlyCracker.crack(ciphertext.toByteArray(), topK);
+        StringBuilder json = new StringBuilder();
+        json.append("{\"bytes\":").append(ciphertext.size()).append(",\"keys\":[");
+        for (int i = 0; i < candidates.size(); i++) {
+            CiphertextOnlyCracker.Candidate candidate = candidates.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT, "{\"key\":\"%s\",\"score\":%.4f,\"printable\":%.4f}",
+                    Utils.intToBinaryString(candidate.key, 10), candidate.score, candidate.printableRatio));
+        }
+        json.append("]}");
+        stdout.println(json);
+        stdout.flush();
+        return 0;
+    }
+
+    /**
+     * 解析8位二进制或2位十六进制的数据块
+     */
+    private static int parseBlock(String token, int lineNumber) {
+        if (Utils.isValidBinary(token, 8)) {
+            return Utils.binaryStringToInt(token);
+        }
+        if (token.length() == 2 && Character.digit(token.charAt(0), 16) >= 0 && Character.digit(token.charAt(1), 16) >= 0) {
+            return Integer.parseInt(token, 16);
+        }
+        throw new IllegalArgumentException("第" + lineNumber + "行的数据块无效: " + token);
+    }
+
+    /**
+     * 用彩虹表从选择明文的密文恢复组合密钥
+     */
+    private static int rainbow(Map<String, String> options, PrintStream stdout) throws IOException {
+        if (!options.containsKey("table") || !options.containsKey("ciphertext")) {
+            throw new IllegalArgumentException("必须指定--table和--ciphertext");
+        }
+        String cipher = options.getOrDefault("cipher", "sdes");
+        SDESVariant variant;
+        try {
+            variant = "sdes".equals(cipher) ? SDESVariant.SINGLE : SDESVariant.valueOf(cipher.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的算法: " + cipher);
+        }
+        int bytes = RainbowTable.blockBytes(variant);
+        byte[] plaintext = options.containsKey("plaintext")
+                ? parseHexBytes(options.get("plaintext"), bytes, "--plaintext")
+                : Arrays.copyOf(DEFAULT_CHOSEN_PLAINTEXT, bytes);
+        byte[] ciphertext = parseHexBytes(options.get("ciphertext"), bytes, "--ciphertext");
+
+        if (options.containsKey("tables") && !options.containsKey("chain-length")) {
+            throw new IllegalArgumentException("--tables必须与--chain-length和--chains一起使用");
+        }
+
+        Path file = Paths.get(options.get("table"));
+        if (!Files.exists(file)) {
+            RainbowTable built;
+            if (options.containsKey("chain-length") || options.containsKey("chains")) {
+                built = RainbowTable.build(variant, plaintext,
+                        parsePositive(options.get("chain-length"), "--chain-length"),
+                        parsePositive(options.get("chains"), "--chains"),
+                        parsePositive(options.getOrDefault("tables", String.valueOf(RainbowTable.DEFAULT_TABLE_COUNT)),
+                                "--tables"));
+            } else {
+                built = RainbowTable.build(variant, plaintext);
+            }
+            built.write(file);
+        }
+        RainbowTable table = RainbowTable.open(file);
+        if (table.getVariant() != variant || !Arrays.equals(table.getChosenPlaintext(), plaintext)) {
+            throw new IllegalArgumentException("彩虹表的算法或选择明文与参数不一致: " + file);
+        }
+
+        int packed = 0;
+        for (byte block : ciphertext) {
+            packed = packed << 8 | (block & 0xFF);
+        }
+        int key = table.lookup(packed);
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"plaintext\":\"").append(toHex(plaintext))
+                .append("\",\"ciphertext\":\"").append(toHex(ciphertext)).append("\",\"key\":");
+        if (key < 0) {
+            json.append("null");
+        } else {
+            json.append('"').append(Utils.intToBinaryString(key, variant.keyBits())).append('"');
+        }
+        json.append('}');
+        stdout.println(json);
+        stdout.flush();
+        return key < 0 ? 1 : 0;
+    }
+
+    private static String toHex(byte[] data) {
+        StringBuilder hex = new StringBuilder(data.length * 2);
+        for (byte b : data) {
+            hex.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 解析固定字节数的十六进制串
+     */
+    private static byte[] parseHexBytes(String value, int bytes, String name) {
+        if (value.length() != bytes * 2) {
+            throw new IllegalArgumentException(name + "必须是" + bytes + "字节的十六进制数");
+        }
+        byte[] result = new byte[bytes];
+        for (int i = 0; i < bytes; i++) {
+            int high = Character.digit(value.charAt(2 * i), 16);
+            int low = Character.digit(value.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException(name + "必须是" + bytes + "字节的十六进制数");
+            }
+            result[i] = (byte) (high << 4 | low);
+        }
+        return result;
+    }
+
+    /**
+     * 解析正整数选项
+     */
+    private static int parsePositive(String value, String name) {
+        int count = value == null ? 0 : parseCount(value, name);
+        if (count == 0) {
+            throw new IllegalArgumentException(name + "必须是正整数");
+        }
+        return count;
+    }
+
+    /**
+     * 将一段数据编码为输出格式
+     * @param first 是否为输出的第一段，用于决定二进制格式的分隔符
+     * @return 编码后的字节数
+     */
+    private static int encode(byte[] data, int count, Format format, byte[] out, boolean first) {
+        int pos = 0;
+        switch (format) {
+            case RAW:
+                System.arraycopy(data, 0, out, 0, count);
+                return count;
+            case HEX:
+                for (int i = 0; i < count; i++) {
+                    out[pos++] = (byte) Character.forDigit((data[i] >>> 4) & 0xF, 16);
+                    out[pos++] = (byte) Character.forDigit(data[i] & 0xF, 16);
+                }
+                return pos;
+            default:
+                for (int i = 0; i < count; i++) {
+                    if (i > 0 || !first) {
+                        out[pos++] = ' ';
+                    }
+                    for (int bit = 7; bit >= 0; bit--) {
+                        out[pos++] = (byte) ('0' + ((data[i] >>> bit) & 1));
+                    }
+                }
+                return pos;
+        }
+    }
+
+    private static InputStream openInput(String path, InputStream stdin) throws IOException {
+        if (path == null || "-".equals(path)) {
+            return new BufferedInputStream(stdin, IO_BUFFER_SIZE) {
+                @Override
+                public void close() {
+                    // 不关闭标准输入
+                }
+            };
+        }
+        return new BufferedInputStream(Files.newInputStream(Paths.get(path)), IO_BUFFER_SIZE);
+    }
+
+    private static OutputStream openOutput(String path, PrintStream stdout) throws IOException {
+        if (path == null || "-".equals(path)) {
+            return new BufferedOutputStream(stdout, IO_BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    // 只刷新，不关闭标准输出
+                    flush();
+                }
+            };
+        }
+        return new BufferedOutputStream(Files.newOutputStream(Paths.get(path)), IO_BUFFER_SIZE);
+    }
+
+    /**
+     * 二进制/十六进制文本的流式解码器，忽略空白字符，跨块保留不足一个字节的位
+     */
+    private static class TextDecoder {
+        private final int bitsPerChar;
+        private int accumulator;
+        private int bits;
+
+        TextDecoder(Format format) {
+            this.bitsPerChar = format == Format.HEX ? 4 : 1;
+        }
+
+        int decode(byte[] text, int len, byte[] out) {
+            int count = 0;
+            for (int i = 0; i < len; i++) {
+                int c = text[i];
+                if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                    continue;
+                }
+                int value = Character.digit(c, bitsPerChar == 4 ? 16 : 2);
+                if (value < 0) {
+                    throw new IllegalArgumentException("输入包含无效字符: " + (char) c);
+                }
+                accumulator = (accumulator << bitsPerChar) | value;
+                bits += bitsPerChar;
+                if (bits == 8) {
+                    out[count++] = (byte) accumulator;
+                    accumulator = 0;
+                    bits = 0;
+                }
+            }
+            return count;
+        }
+
+        void finish() {
+            if (bits != 0) {
+                throw new IllegalArgumentException("输入长度不是完整的字节");
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+import java.util.stream.IntStream;
+
+/**
+ * S-DES完整码本
+ * S-DES只有1024个密钥和256个数据块，可以预先计算全部加密结果和解密结果，
+ * 之后每次加解密只需一次数组读取
+ */
+public class SDESCodebook {
+
+    // 密钥数量 (2^10)
+    public static final int KEY_COUNT = 1024;
+
+    // 数据块数量 (2^8)
+    public static final int BLOCK_COUNT = 256;
+
+    private SDESCodebook() {
+    }
+
+    /**
+     * 码本表持有类，首次访问时才会并行构建
+     */
+    private static class Tables {
+        // 加密表，下标为 (密钥 << 8) | 明文
+        static final byte[] ENCRYPT = new byte[KEY_COUNT * BLOCK_COUNT];
+
+        // 解密表，下标为 (密钥 << 8) | 密文
+        static final byte[] DECRYPT = new byte[KEY_COUNT * BLOCK_COUNT];
+
+        static {
+            build(ENCRYPT, DECRYPT);
+        }
+
+        // 空方法，调用时触发类初始化
+        static void init() {
+        }
+    }
+
+    /**
+     * 并行构建加密表和解密表
+     * 放在外部类中，避免工作线程在持有类初始化期间访问它而发生死锁
+     */
+    private static void build(byte[] encryptTable, byte[] decryptTable) {
+        IntStream.range(0, KEY_COUNT).parallel().forEach(key -> {
+            int base = key << 8;
+            for (int block = 0; block < BLOCK_COUNT; block++) {
+                int ciphertext = SDES.encrypt(block, key);
+                encryptTable[base | block] = (byte) ciphertext;
+                decryptTable[base | ciphertext] = (byte) block;
+            }
+        });
+    }
+
+    /**
+     * 预先构建码本，避免第一次加解密时的构建延迟
+     */
+    public static void preload() {
+        Tables.init();
+    }
+
+    /**
+     * 通过码本加密单个8位数据块
+     * @param plaintext 8位明文，仅使用低8位
+     * @param key 10位密钥，仅使用低10位
+     * @return 8位密文
+     */
+    public static int encrypt(int plaintext, int key) {
+        return Tables.ENCRYPT[((key & 0x3FF) << 8) | (plaintext & 0xFF)] & 0xFF;
+    }
+
+    /**
+     * 通过码本解密单个8位数据块
+     * @param ciphertext 8位密文，仅使用低8位
+     * @param key 10位密钥，仅使用低10位
+     * @return 8位明文
+     */
+    public static int decrypt(int ciphertext, int key) {
+        return Tables.DECRYPT[((key & 0x3FF) << 8) | (ciphertext & 0xFF)] & 0xFF;
+    }
+}
\ No newline at end of file
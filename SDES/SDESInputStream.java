@@ -0,0 +1,86 @@
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * S-DES解密/加密输入流，用法与CipherInputStream相同
+ * 从底层流读出的数据经SDESCipher原地处理后返回，不按字节调用单块加解密
+ */
+public class SDESInputStream extends FilterInputStream {
+
+    private final SDESCipher cipher;
+
+    // 单字节读取和skip使用的中转缓冲区，取自BufferPool
+    private byte[] buffer;
+
+    /**
+     * @param in 底层输入流
+     * @param cipher 已初始化的加解密器，决定工作模式和加密/解密方向
+     */
+    public SDESInputStream(InputStream in, SDESCipher cipher) {
+        super(in);
+        this.cipher = cipher;
+        this.buffer = BufferPool.acquire();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(buffer, 0, 1);
+        return n <= 0 ? -1 : buffer[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            cipher.update(b, off, n, b, off);
+        }
+        return n;
+    }
+
+    /**
+     * 跳过的数据同样要经过加解密器，以保持链接模式的状态
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            int count = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (count < 0) {
+                break;
+            }
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("不支持mark/reset");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            BufferPool.release(buffer);
+            buffer = null;
+        }
+        super.close();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("流已关闭");
+        }
+    }
+}
\ No newline at end of file
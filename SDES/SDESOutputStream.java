@@ -0,0 +1,86 @@
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * S-DES加密/解密输出流，用法与CipherOutputStream相同
+ * 写入的数据经SDESCipher处理后暂存在复用缓冲区中，缓冲区满或flush时写入底层流
+ */
+public class SDESOutputStream extends FilterOutputStream {
+
+    private final SDESCipher cipher;
+
+    // 待写出的已处理数据，取自BufferPool
+    private byte[] buffer;
+    private int count;
+
+    /**
+     * @param out 底层输出流
+     * @param cipher 已初始化的加解密器，决定工作模式和加密/解密方向
+     */
+    public SDESOutputStream(OutputStream out, SDESCipher cipher) {
+        super(out);
+        this.cipher = cipher;
+        this.buffer = BufferPool.acquire();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count] = (byte) b;
+        cipher.update(buffer, count, 1, buffer, count);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            int n = Math.min(len, buffer.length - count);
+            cipher.update(b, off, n, buffer, count);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flushBuffer();
+        } finally {
+            BufferPool.release(buffer);
+            buffer = null;
+            out.close();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("流已关闭");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * S-DES可读通道包装
+ * 从底层通道读入目标缓冲区的数据直接在原位置加解密
+ */
+public class SDESReadableChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel channel;
+    private final SDESCipher cipher;
+
+    /**
+     * @param channel 底层通道
+     * @param cipher 已初始化的加解密器
+     */
+    public SDESReadableChannel(ReadableByteChannel channel, SDESCipher cipher) {
+        this.channel = channel;
+        this.cipher = cipher;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int start = dst.position();
+        int n = channel.read(dst);
+        if (n > 0) {
+            ByteBuffer source = dst.duplicate();
+            source.position(start).limit(start + n);
+            ByteBuffer target = source.duplicate();
+            cipher.update(source, target);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+/**
+ * S-DES及其多重加密变体
+ * 组合密钥中先使用的密钥在高位。各变体委托给SDESCodebook、DoubleSDES和TripleSDES，
+ * 它们都通过码本计算，适合在穷举搜索中逐个密钥调用
+ */
+public enum SDESVariant {
+    // 单重加密 E_k(P)
+    SINGLE(10) {
+        @Override
+        public int encrypt(int plaintext, int key) {
+            return SDESCodebook.encrypt(plaintext, key);
+        }
+
+        @Override
+        public int decrypt(int ciphertext, int key) {
+            return SDESCodebook.decrypt(ciphertext, key);
+        }
+    },
+
+    // 双重加密 E_k2(E_k1(P))
+    DOUBLE(DoubleSDES.KEY_BITS) {
+        @Override
+        public int encrypt(int plaintext, int key) {
+            return DoubleSDES.encrypt(plaintext, key);
+        }
+
+        @Override
+        public int decrypt(int ciphertext, int key) {
+            return DoubleSDES.decrypt(ciphertext, key);
+        }
+    },
+
+    // 双密钥三重加密 E_k1(D_k2(E_k1(P)))
+    EDE2(TripleSDES.TWO_KEY_BITS) {
+        @Override
+        public int encrypt(int plaintext, int key) {
+            return TripleSDES.encryptTwoKey(plaintext, key);
+        }
+
+        @Override
+        public int decrypt(int ciphertext, int key) {
+            return TripleSDES.decryptTwoKey(ciphertext, key);
+        }
+    },
+
+    // 三密钥三重加密 E_k3(D_k2(E_k1(P)))
+    EDE3(TripleSDES.KEY_BITS) {
+        @Override
+        public int encrypt(int plaintext, int key) {
+            return TripleSDES.encrypt(plaintext, key);
+        }
+
+        @Override
+        public int decrypt(int ciphertext, int key) {
+            return TripleSDES.decrypt(ciphertext, key);
+        }
+    };
+
+    private final int keyBits;
+
+    SDESVariant(int keyBits) {
+        this.keyBits = keyBits;
+    }
+
+    /**
+     * 组合密钥位数
+     */
+    public int keyBits() {
+        return keyBits;
+    }
+
+    /**
+     * 组合密钥数量
+     */
+    public int keyCount() {
+        return 1 << keyBits;
+    }
+
+    /**
+     * 加密单个8位数据块
+     * @param plaintext 8位明文，仅使用低8位
+     * @param key 组合密钥，必须小于keyCount()
+     * @return 8位密文
+     */
+    public abstract int encrypt(int plaintext, int key);
+
+    /**
+     * 解密单个8位数据块
+     * @param ciphertext 8位密文，仅使用低8位
+     * @param key 组合密钥，必须小于keyCount()
+     * @return 8位明文
+     */
+    public abstract int decrypt(int ciphertext, int key);
+}
\ No newline at end of file
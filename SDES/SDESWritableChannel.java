@@ -0,0 +1,66 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * S-DES可写通道包装
+ * 源缓冲区的数据经复用的中转缓冲区加解密后写入底层通道，不修改调用方的数据。
+ * 底层通道应为阻塞模式，每次write都会把已处理的数据全部写出
+ */
+public class SDESWritableChannel implements WritableByteChannel {
+
+    private final WritableByteChannel channel;
+    private final SDESCipher cipher;
+
+    // 中转缓冲区，取自BufferPool
+    private byte[] buffer;
+    private final ByteBuffer wrapped;
+
+    /**
+     * @param channel 底层通道
+     * @param cipher 已初始化的加解密器
+     */
+    public SDESWritableChannel(WritableByteChannel channel, SDESCipher cipher) {
+        this.channel = channel;
+        this.cipher = cipher;
+        this.buffer = BufferPool.acquire();
+        this.wrapped = ByteBuffer.wrap(buffer);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (buffer == null) {
+            throw new IOException("通道已关闭");
+        }
+        int total = 0;
+        while (src.hasRemaining()) {
+            wrapped.clear();
+            ByteBuffer chunk = src.duplicate();
+            chunk.limit(chunk.position() + Math.min(chunk.remaining(), buffer.length));
+            int n = chunk.remaining();
+            cipher.update(chunk, wrapped);
+            src.position(src.position() + n);
+
+            wrapped.flip();
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            BufferPool.release(buffer);
+            buffer = null;
+        }
+        channel.close();
+    }
+}
\ No newline at end of file
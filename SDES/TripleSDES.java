@@ -0,0 +1,67 @@
+/**
+ * 三重S-DES，采用"加密-解密-加密"(EDE)结构
+ * 三密钥形式: C = E_k3(D_k2(E_k1(P)))，组合密钥30位，打包为 (k1 << 20) | (k2 << 10) | k3
+ * 双密钥形式: C = E_k1(D_k2(E_k1(P)))，组合密钥20位，打包为 (k1 << 10) | k2
+ */
+public class TripleSDES {
+
+    // 三密钥形式的组合密钥位数
+    public static final int KEY_BITS = 30;
+
+    // 双密钥形式的组合密钥位数
+    public static final int TWO_KEY_BITS = 20;
+
+    private TripleSDES() {
+    }
+
+    /**
+     * 打包三个10位密钥
+     */
+    public static int packKey(int firstKey, int secondKey, int thirdKey) {
+        return ((firstKey & 0x3FF) << 20) | ((secondKey & 0x3FF) << 10) | (thirdKey & 0x3FF);
+    }
+
+    /**
+     * 三密钥形式加密单个8位数据块
+     * @param plaintext 8位明文
+     * @param key 30位组合密钥
+     * @return 8位密文
+     */
+    public static int encrypt(int plaintext, int key) {
+        int middle = SDESCodebook.decrypt(SDESCodebook.encrypt(plaintext, (key >>> 20) & 0x3FF), (key >>> 10) & 0x3FF);
+        return SDESCodebook.encrypt(middle, key & 0x3FF);
+    }
+
+    /**
+     * 三密钥形式解密单个8位数据块
+     * @param ciphertext 8位密文
+     * @param key 30位组合密钥
+     * @return 8位明文
+     */
+    public static int decrypt(int ciphertext, int key) {
+        int middle = SDESCodebook.encrypt(SDESCodebook.decrypt(ciphertext, key & 0x3FF), (key >>> 10) & 0x3FF);
+        return SDESCodebook.decrypt(middle, (key >>> 20) & 0x3FF);
+    }
+
+    /**
+     * 双密钥形式加密单个8位数据块
+     * @param plaintext 8位明文
+     * @param key 20位组合密钥
+     * @return 8位密文
+     */
+    public static int encryptTwoKey(int plaintext, int key) {
+        int outer = (key >>> 10) & 0x3FF;
+        return SDESCodebook.encrypt(SDESCodebook.decrypt(SDESCodebook.encrypt(plaintext, outer), key & 0x3FF), outer);
+    }
+
+    /**
+     * 双密钥形式解密单个8位数据块
+     * @param ciphertext 8位密文
+     * @param key 20位组合密钥
+     * @return 8位明文
+     */
+    public static int decryptTwoKey(int ciphertext, int key) {
+        int outer = (key >>> 10) & 0x3FF;
+        return SDESCodebook.decrypt(SDESCodebook.encrypt(SDESCodebook.decrypt(ciphertext, outer), key & 0x3FF), outer);
+    }
+}
\ No newline at end of file
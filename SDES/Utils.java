@@ -89,4 +89,32 @@ public class Utils {
         System.arraycopy(right, 0, merged, left.length, right.length);
         return merged;
     }
+    
+    /**
+     * 将二进制字符串转换为打包整数
+     * @param binaryString 二进制字符串，如 "10101010"
+     * @return 打包后的整数，字符串第1位为最高位
+     */
+    public static int binaryStringToInt(String binaryString) {
+        int value = 0;
+        for (int i = 0; i < binaryString.length(); i++) {
+            value = (value << 1) | (binaryString.charAt(i) - '0');
+        }
+        return value;
+    }
+    
+    /**
+     * 将打包整数转换为定长二进制字符串
+     * @param value 打包后的整数
+     * @param bits 输出位数
+     * @return 二进制字符串，高位在前，不足位数补0
+     */
+    public static String intToBinaryString(int value, int bits) {
+        char[] chars = new char[bits];
+        for (int i = bits - 1; i >= 0; i--) {
+            chars[i] = (char) ('0' + (value & 1));
+            value >>>= 1;
+        }
+        return new String(chars);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 基于jdk.incubator.vector的向量化S-DES引擎
+ * 同一密钥下每个置换和轮函数都可以拆成以4位为下标的16项表，
+ * 用向量重排(selectFrom)一次完成整条向量的查表
+ * 位于可选源码目录vector中，编译和运行都需要 --add-modules jdk.incubator.vector，通过SDESBatch按需加载
+ */
+public class VectorSDES implements SDESBatch.Engine {
+
+    // 至少16路，保证16项查找表能放进一条向量
+    private static final VectorSpecies<Byte> SPECIES =
+            ByteVector.SPECIES_PREFERRED.length() >= 16 ? ByteVector.SPECIES_PREFERRED : ByteVector.SPECIES_128;
+
+    // 初始置换拆分为高4位和低4位两张表，IP(x) = IP_HI[x >>> 4] | IP_LO[x & 0xF]
+    private static final ByteVector IP_HI;
+    private static final ByteVector IP_LO;
+
+    // 逆初始置换的两张拆分表
+    private static final ByteVector IP_INV_HI;
+    private static final ByteVector IP_INV_LO;
+
+    static {
+        byte[] ipHi = new byte[SPECIES.length()];
+        byte[] ipLo = new byte[SPECIES.length()];
+        byte[] invHi = new byte[SPECIES.length()];
+        byte[] invLo = new byte[SPECIES.length()];
+        for (int n = 0; n < 16; n++) {
+            ipHi[n] = (byte) Permutation.initialPermutation(n << 4);
+            ipLo[n] = (byte) Permutation.initialPermutation(n);
+            invHi[n] = (byte) Permutation.inverseInitialPermutation(n << 4);
+            invLo[n] = (byte) Permutation.inverseInitialPermutation(n);
+        }
+        IP_HI = ByteVector.fromArray(SPECIES, ipHi, 0);
+        IP_LO = ByteVector.fromArray(SPECIES, ipLo, 0);
+        IP_INV_HI = ByteVector.fromArray(SPECIES, invHi, 0);
+        IP_INV_LO = ByteVector.fromArray(SPECIES, invLo, 0);
+    }
+
+    @Override
+    public void process(byte[] in, int inOff, int len, byte[] out, int outOff, int key, boolean decrypt) {
+        int subKeys = KeyGenerator.getSubKeys(key);
+        ByteVector f1 = roundTable(decrypt ? subKeys & 0xFF : subKeys >>> 8);
+        ByteVector f2 = roundTable(decrypt ? subKeys >>> 8 : subKeys & 0xFF);
+
+        int i = 0;
+        int bound = SPECIES.loopBound(len);
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector v = ByteVector.fromArray(SPECIES, in, inOff + i);
+            rounds(v, f1, f2).intoArray(out, outOff + i);
+        }
+
+        // 不足一条向量的尾部走标量路径
+        for (; i < len; i++) {
+            int block = in[inOff + i];
+            out[outOff + i] = (byte) (decrypt ? SDES.decrypt(block, key) : SDES.encrypt(block, key));
+        }
+    }
+
+    @Override
+    public void process(ByteBuffer in, ByteBuffer out, int key, boolean decrypt) {
+        int subKeys = KeyGenerator.getSubKeys(key);
+        ByteVector f1 = roundTable(decrypt ? subKeys & 0xFF : subKeys >>> 8);
+        ByteVector f2 = roundTable(decrypt ? subKeys >>> 8 : subKeys & 0xFF);
+
+        int inPos = in.position();
+        int outPos = out.position();
+        int len = in.remaining();
+        if (out.remaining() < len) {
+            throw new IllegalArgumentException("输出缓冲区空间不足");
+        }
+
+        int i = 0;
+        int bound = SPECIES.loopBound(len);
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector v = ByteVector.fromByteBuffer(SPECIES, in, inPos + i, ByteOrder.nativeOrder());
+            rounds(v, f1, f2).intoByteBuffer(out, outPos + i, ByteOrder.nativeOrder());
+        }
+
+        for (; i < len; i++) {
+            int block = in.get(inPos + i);
+            out.put(outPos + i, (byte) (decrypt ? SDES.decrypt(block, key) : SDES.encrypt(block, key)));
+        }
+
+        in.position(inPos + len);
+        out.position(outPos + len);
+    }
+
+    /**
+     * 多密钥加密单个数据块
+     * 每一路的查找表各不相同，x86上没有字节聚集指令，直接查码本比向量化更快
+     */
+    @Override
+    public void encryptKeys(int block, int[] keys, byte[] out) {
+        for (int i = 0; i < keys.length; i++) {
+            out[i] = (byte) SDESCodebook.encrypt(block, keys[i]);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "向量化 (" + SPECIES.vectorBitSize() + "位)";
+    }
+
+    /**
+     * 穷举校验：全部1024个密钥 × 256个数据块的数组、直接缓冲区和多密钥路径均与标量SDES一致
+     * 用法: java --add-modules jdk.incubator.vector VectorSDES，一致时退出码为0，否则输出第一处不一致并以1退出
+     */
+    public static void main(String[] args) {
+        VectorSDES engine = new VectorSDES();
+        // 多出的字节覆盖不足一条向量的尾部
+        int len = SDESCodebook.BLOCK_COUNT + SPECIES.length() - 1;
+        byte[] blocks = new byte[len];
+        for (int i = 0; i < len; i++) {
+            blocks[i] = (byte) i;
+        }
+        byte[] encrypted = new byte[len];
+        byte[] decrypted = new byte[len];
+        ByteBuffer in = ByteBuffer.allocateDirect(len);
+        ByteBuffer out = ByteBuffer.allocateDirect(len);
+        for (int key = 0; key < SDESCodebook.KEY_COUNT; key++) {
+            engine.process(blocks, 0, len, encrypted, 0, key, false);
+            engine.process(blocks, 0, len, decrypted, 0, key, true);
+            in.clear();
+            in.put(blocks).flip();
+            out.clear();
+            engine.process(in, out, key, false);
+            for (int i = 0; i < len; i++) {
+                int block = i & 0xFF;
+                int ciphertext = SDES.encrypt(block, key);
+                if ((encrypted[i] & 0xFF) != ciphertext || (out.get(i) & 0xFF) != ciphertext
+                        || (decrypted[i] & 0xFF) != SDES.decrypt(block, key)) {
+                    fail(key, block);
+                }
+            }
+        }
+
+        int[] keys = new int[SDESCodebook.KEY_COUNT];
+        for (int key = 0; key < keys.length; key++) {
+            keys[key] = key;
+        }
+        byte[] ciphertexts = new byte[keys.length];
+        for (int block = 0; block < SDESCodebook.BLOCK_COUNT; block++) {
+            engine.encryptKeys(block, keys, ciphertexts);
+            for (int key = 0; key < keys.length; key++) {
+                if ((ciphertexts[key] & 0xFF) != SDES.encrypt(block, key)) {
+                    fail(key, block);
+                }
+            }
+        }
+        System.out.println(engine.name() + "实现与标量实现一致: " + SDESCodebook.KEY_COUNT + "个密钥 × "
+                + SDESCodebook.BLOCK_COUNT + "个数据块");
+    }
+
+    private static void fail(int key, int block) {
+        System.err.println("向量化实现与标量实现不一致: 密钥 " + Utils.intToBinaryString(key, 10)
+                + ", 数据块 " + Utils.intToBinaryString(block, 8));
+        System.exit(1);
+    }
+
+    /**
+     * 生成某个子密钥的16项轮函数表
+     */
+    private static ByteVector roundTable(int subKey) {
+        byte[] table = new byte[SPECIES.length()];
+        for (int right = 0; right < 16; right++) {
+            table[right] = (byte) SDES.fFunction(right, subKey);
+        }
+        return ByteVector.fromArray(SPECIES, table, 0);
+    }
+
+    /**
+     * 对整条向量执行初始置换、两轮Feistel和逆初始置换
+     */
+    private static ByteVector rounds(ByteVector v, ByteVector f1, ByteVector f2) {
+        // 初始置换
+        ByteVector hi = v.lanewise(VectorOperators.LSHR, 4).and((byte) 0x0F);
+        ByteVector lo = v.and((byte) 0x0F);
+        ByteVector ip = hi.selectFrom(IP_HI).or(lo.selectFrom(IP_LO));
+
+        ByteVector left = ip.lanewise(VectorOperators.LSHR, 4).and((byte) 0x0F);
+        ByteVector right = ip.and((byte) 0x0F);
+
+        // 第一轮: 左右交换
+        ByteVector right1 = left.lanewise(VectorOperators.XOR, right.selectFrom(f1));
+
+        // 第二轮: 不交换
+        ByteVector left2 = right.lanewise(VectorOperators.XOR, right1.selectFrom(f2));
+
+        // 逆初始置换
+        return left2.selectFrom(IP_INV_HI).or(right1.selectFrom(IP_INV_LO));
+    }
+}
\ No newline at end of file